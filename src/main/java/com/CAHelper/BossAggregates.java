@@ -0,0 +1,153 @@
+package com.CAHelper;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per-boss totals held in primitive arrays indexed by interned boss ID.
+ * Built with a counting pass, so grouping never hashes monster names.
+ */
+public class BossAggregates
+{
+    public static final int NO_INCOMPLETE = Integer.MAX_VALUE;
+
+    private final int[] total;
+    private final int[] completed;
+    private final int[] pointsRemaining;
+    private final int[] minIncompleteDifficulty;
+
+    // Tasks bucketed by boss: ordered[offsets[b] .. offsets[b + 1])
+    private final int[] offsets;
+    private final RoutingAlgorithm.CombatAchievement[] ordered;
+    private int[] bossIds;
+
+    private BossAggregates(int bossCount, int taskCount)
+    {
+        total = new int[bossCount];
+        completed = new int[bossCount];
+        pointsRemaining = new int[bossCount];
+        minIncompleteDifficulty = new int[bossCount];
+        offsets = new int[bossCount + 1];
+        ordered = new RoutingAlgorithm.CombatAchievement[taskCount];
+        Arrays.fill(minIncompleteDifficulty, NO_INCOMPLETE);
+    }
+
+    /**
+     * Count, then bucket tasks by boss ID. Tasks keep their relative order within a boss.
+     * Locked tasks count like any other, but never set the easiest incomplete difficulty.
+     */
+    public static BossAggregates build(List<RoutingAlgorithm.CombatAchievement> tasks, TaskBitmap locked)
+    {
+        int bossCount = 0;
+        for (RoutingAlgorithm.CombatAchievement task : tasks)
+        {
+            bossCount = Math.max(bossCount, task.getBossId() + 1);
+        }
+
+        BossAggregates agg = new BossAggregates(bossCount, tasks.size());
+
+        for (RoutingAlgorithm.CombatAchievement task : tasks)
+        {
+            int boss = task.getBossId();
+            if (boss < 0)
+            {
+                continue;
+            }
+
+            agg.total[boss]++;
+
+            if (task.isCompleted())
+            {
+                agg.completed[boss]++;
+            }
+            else
+            {
+                agg.pointsRemaining[boss] += task.getPoints();
+                if (!locked.get(task.getId()))
+                {
+                    agg.minIncompleteDifficulty[boss] = Math.min(agg.minIncompleteDifficulty[boss],
+                            task.getDifficulty().ordinal());
+                }
+            }
+        }
+
+        // Prefix sums give each boss its slice of the ordered array
+        int present = 0;
+        for (int boss = 0; boss < bossCount; boss++)
+        {
+            agg.offsets[boss + 1] = agg.offsets[boss] + agg.total[boss];
+            if (agg.total[boss] > 0)
+            {
+                present++;
+            }
+        }
+
+        int[] cursor = Arrays.copyOf(agg.offsets, bossCount);
+        for (RoutingAlgorithm.CombatAchievement task : tasks)
+        {
+            int boss = task.getBossId();
+            if (boss >= 0)
+            {
+                agg.ordered[cursor[boss]++] = task;
+            }
+        }
+
+        agg.bossIds = new int[present];
+        int n = 0;
+        for (int boss = 0; boss < bossCount; boss++)
+        {
+            if (agg.total[boss] > 0)
+            {
+                agg.bossIds[n++] = boss;
+            }
+        }
+
+        return agg;
+    }
+
+    /**
+     * Boss IDs that have at least one task, ascending.
+     */
+    public int[] getBossIds()
+    {
+        return bossIds;
+    }
+
+    public int getBossCount()
+    {
+        return bossIds.length;
+    }
+
+    public int getTotal(int bossId)
+    {
+        return total[bossId];
+    }
+
+    public int getCompleted(int bossId)
+    {
+        return completed[bossId];
+    }
+
+    public int getIncomplete(int bossId)
+    {
+        return total[bossId] - completed[bossId];
+    }
+
+    public int getPointsRemaining(int bossId)
+    {
+        return pointsRemaining[bossId];
+    }
+
+    /**
+     * @return the easiest unlocked incomplete difficulty ordinal, or {@link #NO_INCOMPLETE}
+     */
+    public int getMinIncompleteDifficulty(int bossId)
+    {
+        return minIncompleteDifficulty[bossId];
+    }
+
+    public List<RoutingAlgorithm.CombatAchievement> getTasks(int bossId)
+    {
+        return Arrays.asList(ordered).subList(offsets[bossId], offsets[bossId + 1]);
+    }
+}
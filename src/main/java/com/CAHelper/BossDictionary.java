@@ -0,0 +1,84 @@
+package com.CAHelper;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.EnumComposition;
+
+/**
+ * Int-keyed boss names read from the CA monster enum.
+ * Index is the monster ID stored on each task struct.
+ */
+@Slf4j
+public class BossDictionary
+{
+    public static final int UNKNOWN = -1;
+
+    private static final String[] EMPTY = new String[0];
+
+    private final String[] namesById;
+    private final int size;
+
+    private BossDictionary(String[] namesById, int size)
+    {
+        this.namesById = namesById;
+        this.size = size;
+    }
+
+    public static BossDictionary empty()
+    {
+        return new BossDictionary(EMPTY, 0);
+    }
+
+    /**
+     * Build the dictionary from the monster enum (int key -> name).
+     */
+    public static BossDictionary fromEnum(Client client, int enumId)
+    {
+        EnumComposition monsterEnum = client.getEnum(enumId);
+        if (monsterEnum == null)
+        {
+            log.warn("Monster enum {} is null", enumId);
+            return empty();
+        }
+
+        int[] keys = monsterEnum.getKeys();
+        String[] values = monsterEnum.getStringVals();
+
+        int maxKey = -1;
+        for (int key : keys)
+        {
+            maxKey = Math.max(maxKey, key);
+        }
+
+        String[] names = new String[maxKey + 1];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++)
+        {
+            if (keys[i] >= 0 && values[i] != null && !values[i].isEmpty())
+            {
+                names[keys[i]] = values[i];
+                count++;
+            }
+        }
+
+        log.info("Loaded {} bosses from monster enum {}", count, enumId);
+        return new BossDictionary(names, count);
+    }
+
+    /**
+     * @return the boss name, or null when the id is unknown
+     */
+    public String getName(int monsterId)
+    {
+        if (monsterId < 0 || monsterId >= namesById.length)
+        {
+            return null;
+        }
+        return namesById[monsterId];
+    }
+
+    public int size()
+    {
+        return size;
+    }
+}
@@ -0,0 +1,55 @@
+package com.CAHelper;
+
+import javax.inject.Singleton;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns monster names into dense int boss IDs.
+ * IDs are stable for the lifetime of the plugin, so they can key UI state and per-boss arrays.
+ */
+@Singleton
+public class BossInterner
+{
+    private final Map<String, Integer> idsByName = new HashMap<>();
+    private String[] names = new String[128];
+    private int size = 0;
+
+    /**
+     * @return the boss ID for this name, assigning the next free ID on first sight
+     */
+    public synchronized int intern(String name)
+    {
+        String key = name != null ? name : "Unknown";
+
+        Integer existing = idsByName.get(key);
+        if (existing != null)
+        {
+            return existing;
+        }
+
+        if (size == names.length)
+        {
+            names = Arrays.copyOf(names, size * 2);
+        }
+
+        int id = size++;
+        names[id] = key;
+        idsByName.put(key, id);
+        return id;
+    }
+
+    public synchronized String getName(int bossId)
+    {
+        return bossId >= 0 && bossId < size ? names[bossId] : null;
+    }
+
+    /**
+     * Number of IDs handed out so far; size per-boss arrays with this.
+     */
+    public synchronized int size()
+    {
+        return size;
+    }
+}
@@ -0,0 +1,79 @@
+package com.CAHelper;
+
+import lombok.Value;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Per-boss facts taken from the boss's own wiki page (infobox and categories),
+ * used in place of the hardcoded keyword lists when available.
+ */
+@Value
+public class BossMetadata
+{
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("\\d+");
+
+    String name;
+    String location;    // infobox location text, empty if the page has none
+    boolean wilderness; // location or categories place it in the Wilderness
+    boolean groupOnly;  // categorised as group content
+    List<Integer> npcIds;
+
+    /**
+     * Build metadata from a page's rendered lead section and its category names.
+     */
+    public static BossMetadata parse(String name, String html, List<String> categories)
+    {
+        Document doc = Jsoup.parse(html != null ? html : "");
+
+        String location = "";
+        List<Integer> npcIds = new ArrayList<>();
+
+        for (Element row : doc.select("table.infobox tr"))
+        {
+            Element header = row.selectFirst("th");
+            Element value = row.selectFirst("td");
+            if (header == null || value == null)
+            {
+                continue;
+            }
+
+            String key = header.text().trim().toLowerCase();
+            if (key.equals("location") && location.isEmpty())
+            {
+                location = value.text().trim();
+            }
+            else if (key.endsWith(" id") || key.equals("id"))
+            {
+                // "NPC ID" / "Monster ID": comma separated, one per version of the boss
+                Matcher matcher = NUMBER_PATTERN.matcher(value.text());
+                while (matcher.find())
+                {
+                    int id = Integer.parseInt(matcher.group());
+                    if (!npcIds.contains(id))
+                    {
+                        npcIds.add(id);
+                    }
+                }
+            }
+        }
+
+        boolean wilderness = location.toLowerCase().contains("wilderness");
+        boolean groupOnly = false;
+        for (String category : categories)
+        {
+            String lower = category.toLowerCase().replace('_', ' ');
+            wilderness |= lower.contains("wilderness");
+            groupOnly |= lower.contains("group boss") || lower.contains("group content");
+        }
+
+        return new BossMetadata(name, location, wilderness, groupOnly, Collections.unmodifiableList(npcIds));
+    }
+}
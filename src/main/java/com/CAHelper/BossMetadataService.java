@@ -0,0 +1,111 @@
+package com.CAHelper;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Boss metadata keyed by interned boss ID, fetched from each boss's wiki page
+ * once the wiki task table is loaded.
+ */
+@Slf4j
+@Singleton
+public class BossMetadataService
+{
+    @Inject
+    private WikiDataLoader wikiDataLoader;
+
+    @Inject
+    private CombatAchievementEnrichmentService enrichmentService;
+
+    @Inject
+    private BossInterner bossInterner;
+
+    // Replaced as a whole, like the wiki snapshot
+    private final AtomicReference<Map<Integer, BossMetadata>> metadata = new AtomicReference<>(Collections.emptyMap());
+
+    /**
+     * Fetch metadata for every boss in the wiki table that doesn't have any yet.
+     * @return completes with true if new metadata was published
+     */
+    public CompletableFuture<Boolean> refresh()
+    {
+        Map<Integer, BossMetadata> current = metadata.get();
+        Set<String> missing = new LinkedHashSet<>();
+
+        for (RoutingAlgorithm.CombatAchievement row : enrichmentService.getSnapshot().getRows())
+        {
+            String monster = row.getMonster();
+            if (monster == null || monster.isEmpty() || current.containsKey(bossInterner.intern(monster)))
+            {
+                continue;
+            }
+            missing.add(monster);
+        }
+
+        if (missing.isEmpty())
+        {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        log.info("Fetching wiki metadata for {} bosses", missing.size());
+
+        return wikiDataLoader.fetchBossMetadata(missing).thenApply(fetched -> {
+            if (fetched.isEmpty())
+            {
+                return false;
+            }
+
+            Map<Integer, BossMetadata> updated = new HashMap<>(metadata.get());
+            for (BossMetadata boss : fetched.values())
+            {
+                updated.put(bossInterner.intern(boss.getName()), boss);
+            }
+            metadata.set(Collections.unmodifiableMap(updated));
+
+            log.info("Boss metadata loaded for {} of {} bosses", fetched.size(), missing.size());
+            return true;
+        });
+    }
+
+    /**
+     * @return the boss's metadata, or null if none has been fetched
+     */
+    public BossMetadata get(int bossId)
+    {
+        return metadata.get().get(bossId);
+    }
+
+    /**
+     * @return whether the boss is in the Wilderness, or null if unknown
+     */
+    public Boolean isWilderness(int bossId)
+    {
+        BossMetadata boss = get(bossId);
+        return boss != null ? boss.isWilderness() : null;
+    }
+
+    public boolean isGroupOnly(int bossId)
+    {
+        BossMetadata boss = get(bossId);
+        return boss != null && boss.isGroupOnly();
+    }
+
+    public int size()
+    {
+        return metadata.get().size();
+    }
+
+    public void clear()
+    {
+        metadata.set(Collections.emptyMap());
+    }
+}
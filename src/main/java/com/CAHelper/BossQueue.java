@@ -0,0 +1,245 @@
+package com.CAHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Boss recommendations kept in rank order, keyed by interned boss ID. A changed
+ * recommendation is found and re-placed by binary search, so it costs O(log bosses)
+ * comparisons plus one array shift, and the ranked list is never re-sorted as a whole
+ * except when the order itself changes. Both orders break ties on boss ID, so every
+ * recommendation has exactly one slot.
+ * <p>
+ * Client thread only.
+ */
+public class BossQueue
+{
+    private Comparator<RoutingAlgorithm.BossRecommendation> order;
+
+    private RoutingAlgorithm.BossRecommendation[] byBoss = new RoutingAlgorithm.BossRecommendation[0];
+    private int[] ranked = new int[0]; // boss IDs, best first
+    private int size = 0;
+
+    // Last list handed out; null once anything moved
+    private List<RoutingAlgorithm.BossRecommendation> rankedList;
+
+    public BossQueue(Comparator<RoutingAlgorithm.BossRecommendation> order)
+    {
+        this.order = order;
+    }
+
+    /**
+     * Change the ranking and re-sort in O(bosses log bosses). No-op for the current comparator.
+     */
+    public void setOrder(Comparator<RoutingAlgorithm.BossRecommendation> order)
+    {
+        if (order == this.order)
+        {
+            return;
+        }
+
+        this.order = order;
+        RoutingAlgorithm.BossRecommendation[] recs = new RoutingAlgorithm.BossRecommendation[size];
+        for (int i = 0; i < size; i++)
+        {
+            recs[i] = byBoss[ranked[i]];
+        }
+        Arrays.sort(recs, order);
+        for (int i = 0; i < size; i++)
+        {
+            ranked[i] = recs[i].getBossId();
+        }
+        rankedList = null;
+    }
+
+    /**
+     * Insert the boss or move it to match its new recommendation.
+     */
+    public void update(RoutingAlgorithm.BossRecommendation rec)
+    {
+        int bossId = rec.getBossId();
+        ensureCapacity(bossId + 1);
+
+        RoutingAlgorithm.BossRecommendation previous = byBoss[bossId];
+        if (previous == rec)
+        {
+            return;
+        }
+
+        rankedList = null;
+        if (previous == null)
+        {
+            int slot = insertionPoint(rec);
+            System.arraycopy(ranked, slot, ranked, slot + 1, size - slot);
+            ranked[slot] = bossId;
+            byBoss[bossId] = rec;
+            size++;
+            return;
+        }
+
+        int from = slotOf(previous);
+        byBoss[bossId] = rec;
+        if (order.compare(rec, previous) == 0)
+        {
+            return; // same rank key, same slot
+        }
+
+        // Close the gap, then open one where the new recommendation belongs
+        System.arraycopy(ranked, from + 1, ranked, from, size - from - 1);
+        size--;
+        int to = insertionPoint(rec);
+        System.arraycopy(ranked, to, ranked, to + 1, size - to);
+        ranked[to] = bossId;
+        size++;
+    }
+
+    public void remove(int bossId)
+    {
+        if (!contains(bossId))
+        {
+            return;
+        }
+
+        int slot = slotOf(byBoss[bossId]);
+        System.arraycopy(ranked, slot + 1, ranked, slot, size - slot - 1);
+        size--;
+        byBoss[bossId] = null;
+        rankedList = null;
+    }
+
+    /**
+     * Make the queue hold exactly these bosses. Unchanged recommendations cost nothing;
+     * bosses missing from the list are dropped.
+     */
+    public void sync(List<RoutingAlgorithm.BossRecommendation> recommendations)
+    {
+        boolean[] present = new boolean[byBoss.length];
+        for (RoutingAlgorithm.BossRecommendation rec : recommendations)
+        {
+            update(rec);
+            if (rec.getBossId() < present.length)
+            {
+                present[rec.getBossId()] = true;
+            }
+        }
+
+        for (int bossId = 0; bossId < present.length; bossId++)
+        {
+            if (!present[bossId] && contains(bossId))
+            {
+                remove(bossId);
+            }
+        }
+    }
+
+    /**
+     * Best boss, or null when empty. O(1).
+     */
+    public RoutingAlgorithm.BossRecommendation peek()
+    {
+        return size > 0 ? byBoss[ranked[0]] : null;
+    }
+
+    public RoutingAlgorithm.BossRecommendation get(int bossId)
+    {
+        return bossId >= 0 && bossId < byBoss.length ? byBoss[bossId] : null;
+    }
+
+    public boolean contains(int bossId)
+    {
+        return get(bossId) != null;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public void clear()
+    {
+        Arrays.fill(byBoss, null);
+        size = 0;
+        rankedList = null;
+    }
+
+    /**
+     * Every boss, best first. Reuses the last list until something moves.
+     */
+    public List<RoutingAlgorithm.BossRecommendation> toRankedList()
+    {
+        if (rankedList == null)
+        {
+            List<RoutingAlgorithm.BossRecommendation> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++)
+            {
+                list.add(byBoss[ranked[i]]);
+            }
+            rankedList = Collections.unmodifiableList(list);
+        }
+        return rankedList;
+    }
+
+    /**
+     * Slot of a recommendation that is in the queue.
+     */
+    private int slotOf(RoutingAlgorithm.BossRecommendation rec)
+    {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            int cmp = order.compare(byBoss[ranked[mid]], rec);
+            if (cmp < 0)
+            {
+                lo = mid + 1;
+            }
+            else if (cmp > 0)
+            {
+                hi = mid - 1;
+            }
+            else
+            {
+                return mid;
+            }
+        }
+        throw new IllegalStateException("Boss " + rec.getBossId() + " is not in rank order");
+    }
+
+    /**
+     * First slot whose recommendation ranks after this one.
+     */
+    private int insertionPoint(RoutingAlgorithm.BossRecommendation rec)
+    {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (order.compare(byBoss[ranked[mid]], rec) <= 0)
+            {
+                lo = mid + 1;
+            }
+            else
+            {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private void ensureCapacity(int bossCount)
+    {
+        if (bossCount <= byBoss.length)
+        {
+            return;
+        }
+
+        int capacity = Math.max(bossCount, byBoss.length * 2);
+        byBoss = Arrays.copyOf(byBoss, capacity);
+        ranked = Arrays.copyOf(ranked, capacity);
+    }
+}
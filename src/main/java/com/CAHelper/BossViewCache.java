@@ -0,0 +1,108 @@
+package com.CAHelper;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recently opened boss detail views, keyed by boss ID. An entry is reused while the
+ * boss's recommendation version is unchanged, so reopening a boss or toggling a skip
+ * checkbox doesn't re-partition, re-sort or re-plan its tasks. A completion only
+ * rebuilds the entry of the boss it belongs to. Swing thread only.
+ */
+public class BossViewCache
+{
+    private static final int CAPACITY = 16;
+
+    @Value
+    public static class BossView
+    {
+        int bossId;
+        long version;
+        TripPlan tripPlan;                                  // unlocked incomplete tasks, in trip order
+        List<RoutingAlgorithm.CombatAchievement> lockedTasks;   // incomplete but waiting on a prerequisite
+        List<RoutingAlgorithm.CombatAchievement> completeTasks; // by name
+        int completedCount;
+        int totalCount;
+        int pointsRemaining;
+    }
+
+    private final Map<Integer, BossView> views = new LinkedHashMap<Integer, BossView>(CAPACITY, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, BossView> eldest)
+        {
+            return size() > CAPACITY;
+        }
+    };
+
+    private int hits = 0;
+    private int misses = 0;
+
+    /**
+     * The view for this recommendation, built only if the cached one is missing or outdated.
+     */
+    public BossView get(RoutingAlgorithm.BossRecommendation rec)
+    {
+        BossView view = views.get(rec.getBossId());
+        if (view != null && view.getVersion() == rec.getVersion())
+        {
+            hits++;
+            return view;
+        }
+
+        misses++;
+        view = build(rec);
+        views.put(rec.getBossId(), view);
+        return view;
+    }
+
+    private static BossView build(RoutingAlgorithm.BossRecommendation rec)
+    {
+        List<RoutingAlgorithm.CombatAchievement> completeTasks = new ArrayList<>();
+        List<RoutingAlgorithm.CombatAchievement> lockedTasks = new ArrayList<>();
+        List<RoutingAlgorithm.CombatAchievement> unlockedTasks = new ArrayList<>();
+        for (RoutingAlgorithm.CombatAchievement task : rec.getAvailableTasks())
+        {
+            if (task.isCompleted())
+            {
+                completeTasks.add(task);
+            }
+            else if (rec.isLocked(task))
+            {
+                lockedTasks.add(task);
+            }
+            else
+            {
+                unlockedTasks.add(task);
+            }
+        }
+        completeTasks.sort(Comparator.comparing(RoutingAlgorithm.CombatAchievement::getName));
+
+        return new BossView(
+                rec.getBossId(),
+                rec.getVersion(),
+                TripPlan.build(unlockedTasks),
+                Collections.unmodifiableList(lockedTasks),
+                Collections.unmodifiableList(completeTasks),
+                rec.getCompletedCount(),
+                rec.getTotalCount(),
+                rec.getPointsRemaining()
+        );
+    }
+
+    public void clear()
+    {
+        views.clear();
+    }
+
+    public String getStats()
+    {
+        return String.format("%d cached, %d hits, %d misses", views.size(), hits, misses);
+    }
+}
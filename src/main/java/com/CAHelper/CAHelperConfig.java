@@ -3,6 +3,8 @@ package com.CAHelper;
 import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
+import net.runelite.client.config.Range;
+import net.runelite.client.config.Units;
 
 @ConfigGroup("CAHelper")
 public interface CAHelperConfig extends Config
@@ -72,6 +74,49 @@ public interface CAHelperConfig extends Config
         return true;
     }
 
+    @Range(
+            min = 1,
+            max = 16
+    )
+    @Units(Units.MILLISECONDS)
+    @ConfigItem(
+            keyName = "clientThreadBudgetMs",
+            name = "Client Thread Budget",
+            description = "Maximum time per game tick CA Helper may spend loading tasks on the client thread",
+            position = 7
+    )
+    default int clientThreadBudgetMs()
+    {
+        return 2;
+    }
+
+    @ConfigItem(
+            keyName = "travelAwareRouting",
+            name = "Travel-Aware Route",
+            description = "Reorder the top bosses into a route that cuts down on travel between them. "
+                    + "Travel times are rough estimates via the usual teleports, not measured paths",
+            position = 8
+    )
+    default boolean travelAwareRouting()
+    {
+        return false;
+    }
+
+    @Range(
+            min = 3,
+            max = 20
+    )
+    @ConfigItem(
+            keyName = "routeLength",
+            name = "Route Length",
+            description = "How many of the top bosses the travel-aware route covers",
+            position = 9
+    )
+    default int routeLength()
+    {
+        return 8;
+    }
+
     enum Difficulty
     {
         EASY,
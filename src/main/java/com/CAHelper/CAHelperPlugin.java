@@ -18,9 +18,12 @@ import net.runelite.client.ui.ClientToolbar;
 import net.runelite.client.ui.NavigationButton;
 import net.runelite.client.ui.overlay.OverlayManager;
 import net.runelite.client.util.ImageUtil;
+import okhttp3.HttpUrl;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import java.awt.image.BufferedImage;
+import java.util.concurrent.CancellationException;
 
 @Slf4j
 @PluginDescriptor(
@@ -56,11 +59,32 @@ public class CAHelperPlugin extends Plugin
     @Inject
     private OverlayManager overlayManager;
 
+    @Inject
+    private ClientThreadScheduler scheduler;
+
+    @Inject
+    private LoadingPipeline loadingPipeline;
+
+    @Inject
+    private PointPlanner pointPlanner;
+
+    @Inject
+    private TravelRouter travelRouter;
+
+    @Inject
+    private TaskQueryEngine taskQuery;
+
+    @Inject
+    private TaskSearchIndex searchIndex;
+
     private CAHelperOverlay overlay;
     private RoutingAlgorithm.CombatAchievement currentTask = null;
+    private RoutingAlgorithm.BossRecommendation topTaskSource = null;
+    private RoutingAlgorithm.CombatAchievement topTask = null;
     private CombatAchievementPanel panel;
     private NavigationButton navButton;
     private boolean hasLoadedTasks = false;
+    private boolean loadingTasks = false;
     private long lastPanelRefresh = 0;
     private static final long PANEL_REFRESH_COOLDOWN_MS = 500; // Max 1 refresh per 500ms
     private int gameTicksSinceLogin = 0;
@@ -77,12 +101,16 @@ public class CAHelperPlugin extends Plugin
 
         panel = new CombatAchievementPanel(this, combatAchievementService, routingAlgorithm, clientThread);
 
-        enrichmentService.setPanelRefreshCallback(() -> {
-            log.info("Panel refresh callback triggered!");
-            panel.loadRecommendations();
-        });
+        loadingPipeline.startUp();
+        travelRouter.startUp(loadingPipeline.getExecutor());
 
         routingAlgorithm.setConfig(config);
+        travelRouter.setOnRouteReady(() -> scheduler.submit("Panel refresh", () -> {
+            if (panel != null)
+            {
+                panel.loadRecommendations();
+            }
+        }));
 
         navButton = NavigationButton.builder()
                 .tooltip("CA Helper")
@@ -126,28 +154,13 @@ public class CAHelperPlugin extends Plugin
                 return; // wait for varps before refresh
             }
 
-            log.info("=== TRIGGERING FULL RELOAD (service not initialized) ===");
-
-            try
+            if (loadingTasks)
             {
-                log.info("Loading Combat Achievement tasks from cache...");
-                combatAchievementService.initialize();
-
-                int total = combatAchievementService.getTotalTaskCount();
-                int completed = combatAchievementService.getCompletedTaskCount();
-                log.info("Loaded {} tasks, {} completed", total, completed);
-
-                log.info("Loading wiki data in background...");
-                enrichmentService.loadWikiData();
-
-                log.info("Panel will auto-refresh when wiki data finishes loading");
-
-                hasLoadedTasks = true;
-            }
-            catch (Exception e)
-            {
-                log.error("Failed to load CA tasks", e);
+                return; // load already spread across ticks
             }
+
+            log.info("=== TRIGGERING FULL RELOAD (service not initialized) ===");
+            startTaskLoad();
         }
 
         // on subsequent logins, wait 3 ticks for varps to transmit, then refresh
@@ -168,6 +181,42 @@ public class CAHelperPlugin extends Plugin
     }
 
 
+    /**
+     * Load tasks and wiki data through the pipeline; the panel refreshes once both are ready.
+     */
+    private void startTaskLoad()
+    {
+        loadingTasks = true;
+        log.info("Loading Combat Achievement tasks and wiki data...");
+
+        loadingPipeline.start(() -> {
+            if (panel != null)
+            {
+                panel.loadRecommendations();
+            }
+        }).whenComplete((ignored, error) -> {
+            loadingTasks = false;
+
+            if (error instanceof CancellationException)
+            {
+                log.info("CA task load cancelled");
+                return;
+            }
+
+            if (error != null)
+            {
+                log.error("Failed to load CA tasks", error);
+                return;
+            }
+
+            int total = combatAchievementService.getTotalTaskCount();
+            int completed = combatAchievementService.getCompletedTaskCount();
+            log.info("Loaded {} tasks, {} completed ({})", total, completed, scheduler.getBudgetReport());
+
+            hasLoadedTasks = true;
+        });
+    }
+
     @Subscribe
     public void onVarbitChanged(VarbitChanged event)
     {
@@ -210,7 +259,7 @@ public class CAHelperPlugin extends Plugin
         lastPanelRefresh = now;
         log.info("Refreshing panel (throttled)");
 
-        clientThread.invokeLater(() -> {
+        scheduler.submit("Panel refresh", () -> {
             if (panel != null)
             {
                 panel.loadRecommendations();
@@ -226,17 +275,37 @@ public class CAHelperPlugin extends Plugin
             return;
         }
 
-        log.info("Config changed: {} = {}", event.getKey(), event.getNewValue());
-
-        clientThread.invokeLater(() -> {
-            routingAlgorithm.setConfig(config);
+        ConfigInvalidation.Stage stage = ConfigInvalidation.forKey(event.getKey());
+        log.info("Config changed: {} = {} (invalidates {})", event.getKey(), event.getNewValue(), stage);
 
-            if (panel != null)
-            {
-                log.info("Refreshing panel due to config change");
-                panel.loadRecommendations();
-            }
-        });
+        switch (stage)
+        {
+            case FILTER:
+                scheduler.submit("Config refresh", () -> {
+                    routingAlgorithm.setConfig(config);
+
+                    if (panel != null)
+                    {
+                        log.info("Refreshing panel due to config change");
+                        panel.loadRecommendations();
+                    }
+                });
+                break;
+            case SORT:
+                scheduler.submit("Config re-rank", () -> {
+                    routingAlgorithm.setConfig(config);
+
+                    if (panel != null)
+                    {
+                        log.info("Re-ranking panel due to config change");
+                        panel.reorderRecommendations();
+                    }
+                });
+                break;
+            default:
+                // The overlay and scheduler read their settings live; nothing cached to drop
+                break;
+        }
     }
 
     @Subscribe
@@ -256,18 +325,30 @@ public class CAHelperPlugin extends Plugin
             log.info("hasLoadedTasks: {}", hasLoadedTasks);
             log.info("Total tasks: {}", combatAchievementService.getTotalTaskCount());
             log.info("Completed tasks: {}", combatAchievementService.getCompletedTaskCount());
-            log.info("Incomplete tasks: {}", combatAchievementService.getIncompleteTasks().size());
+            log.info("Incomplete tasks: {}", taskQuery.incomplete().cardinality());
+            log.info("Locked behind prerequisites: {}", taskQuery.locked().andNot(taskQuery.complete()).cardinality());
+            log.info("Manually skipped: {}", taskQuery.skipped().and(taskQuery.incomplete()).cardinality());
+            log.info("Group tasks: {}, wilderness tasks: {}",
+                    taskQuery.group().cardinality(), taskQuery.wilderness().cardinality());
             log.info("Current tier: {}", combatAchievementService.getCurrentTier());
             log.info("Current points: {}", combatAchievementService.getCurrentTierPoints());
             log.info("Next tier: {}", combatAchievementService.getNextTierName());
             log.info("Points to next tier: {}", combatAchievementService.getPointsToNextTier());
             log.info("Wiki data loaded: {}", enrichmentService.isWikiDataLoaded());
+            log.info("Client thread budget: {}", scheduler.getBudgetReport());
 
             log.info("=== Config Settings ===");
             log.info("Min Difficulty: {}", config.minDifficulty());
             log.info("Max Difficulty: {}", config.maxDifficulty());
             log.info("Solo Content Only: {}", config.soloContentOnly());
 
+            log.info("=== Incomplete Tasks by Type ===");
+            TaskBitmap incomplete = taskQuery.incomplete();
+            for (RoutingAlgorithm.TaskType type : RoutingAlgorithm.TaskType.values())
+            {
+                log.info("  {}: {}", type.getWikiName(), incomplete.and(taskQuery.type(type)).cardinality());
+            }
+
             log.info("=== Points Breakdown by Difficulty ===");
             var breakdown = combatAchievementService.getPointsBreakdown();
             breakdown.forEach((diff, pts) -> log.info("  {}: {} points", diff, pts));
@@ -282,6 +363,34 @@ public class CAHelperPlugin extends Plugin
 
             log.info("=== END DEBUG ===");
         }
+        else if (command.equals("caplan"))
+        {
+            if (!combatAchievementService.isInitialized())
+            {
+                log.warn("Tasks not loaded yet");
+                return;
+            }
+
+            long start = System.nanoTime();
+            PointPlanner.Plan plan = pointPlanner.plan();
+            long elapsedUs = (System.nanoTime() - start) / 1000;
+
+            log.info("=== Cheapest route to {} ({} points needed, planned in {}us) ===",
+                    plan.getTierName(), plan.getPointsNeeded(), elapsedUs);
+            if (!plan.isReachable())
+            {
+                log.info("Not enough incomplete tasks to reach {}", plan.getTierName());
+            }
+
+            TaskStore store = combatAchievementService.getStore();
+            for (int taskId : plan.getTaskIds())
+            {
+                log.info("  [{} pts] {} ({})", store.getPoints(taskId), store.getName(taskId),
+                        combatAchievementService.getMonsterName(taskId));
+            }
+            log.info("{} tasks, {} points, cost {}", plan.getTaskIds().size(), plan.getPointsPlanned(),
+                    String.format("%.2f", plan.getCost()));
+        }
         else if (command.equals("careload"))
         {
             log.info("=== Manual reload requested ===");
@@ -289,24 +398,12 @@ public class CAHelperPlugin extends Plugin
             hasLoadedTasks = false;
 
             combatAchievementService.reset();
-            combatAchievementService.initialize();
             enrichmentService.clearCache();
-            enrichmentService.loadWikiData();
-
-            new Thread(() -> {
-                try
-                {
-                    Thread.sleep(3000);
-                    log.info("Refreshing panel after wiki load...");
-                    clientThread.invokeLater(() -> panel.loadRecommendations());
-                }
-                catch (InterruptedException e)
-                {
-                    log.error("Reload interrupted", e);
-                }
-            }).start();
-
-            log.info("Reload in progress (will refresh panel in a moment)...");
+            pointPlanner.reset();
+            taskQuery.reset();
+            startTaskLoad();
+
+            log.info("Reload in progress (panel refreshes when the load completes)...");
         }
         else if (command.equals("cawikimatch"))
         {
@@ -370,8 +467,12 @@ public class CAHelperPlugin extends Plugin
             combatAchievementService.reset();
         }
 
+        travelRouter.shutDown();
+        loadingPipeline.shutDown();
+        scheduler.cancelAll();
         clientToolbar.removeNavigation(navButton);
         hasLoadedTasks = false; // Reset for next startup
+        loadingTasks = false;
         overlayManager.remove(overlay);
         log.info("=== CA Helper shutdown complete ===");
     }
@@ -386,33 +487,69 @@ public class CAHelperPlugin extends Plugin
     {
         return configManager.getConfig(CAHelperConfig.class);
     }
+
+    @Provides
+    @Named(WikiDataLoader.WIKI_API_URL_NAME)
+    HttpUrl provideWikiApiUrl()
+    {
+        // -Dcahelper.wikiApiUrl=http://localhost:.../api.php points every wiki request at a stand-in server
+        return HttpUrl.parse(System.getProperty("cahelper.wikiApiUrl", WikiDataLoader.DEFAULT_WIKI_API_URL));
+    }
     public RoutingAlgorithm.CombatAchievement getCurrentTask()
     {
+        if (currentTask != null)
+        {
+            return currentTask;
+        }
 
-        return currentTask;
+        // Nothing opened yet - follow the top boss, re-deriving only when it changes
+        RoutingAlgorithm.BossRecommendation top = routingAlgorithm.getTopRecommendation();
+        if (top != topTaskSource)
+        {
+            topTaskSource = top;
+            topTask = nextTask(top);
+        }
+        return topTask;
     }
 
     // Method to set current task (called when boss detail opens)
     public void setCurrentTask(RoutingAlgorithm.BossRecommendation boss)
     {
+        currentTask = nextTask(boss);
+    }
 
+    private RoutingAlgorithm.CombatAchievement nextTask(RoutingAlgorithm.BossRecommendation boss)
+    {
         if (boss == null)
         {
-            currentTask = null;
-
-            return;
+            return null;
         }
 
-        currentTask = boss.getAvailableTasks().stream()
-                .filter(task -> task.getCompletionRate() < 100)
-                .filter(task -> !manualCompletionManager.isManuallyCompleted(task.getId()))
+        // Called from the panel too, so completion comes from the recommendation rather than the varps
+        TaskBitmap skipped = taskQuery.skipped();
+        return boss.getAvailableTasks().stream()
+                .filter(task -> !task.isCompleted() && !boss.isLocked(task) && !skipped.get(task.getId()))
                 .findFirst()
                 .orElse(null);
-
     }
 
     public ManualCompletionManager getManualCompletionManager()
     {
         return manualCompletionManager;
     }
+
+    public PointPlanner getPointPlanner()
+    {
+        return pointPlanner;
+    }
+
+    public TaskQueryEngine getTaskQuery()
+    {
+        return taskQuery;
+    }
+
+    public TaskSearchIndex getSearchIndex()
+    {
+        return searchIndex;
+    }
 }
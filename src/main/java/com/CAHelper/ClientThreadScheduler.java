@@ -0,0 +1,209 @@
+package com.CAHelper;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.callback.ClientThread;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs client-thread-only work in resumable chunks so a single client tick
+ * never spends more than the configured budget on CA Helper.
+ */
+@Slf4j
+@Singleton
+public class ClientThreadScheduler
+{
+    private static final int DEFAULT_BUDGET_MS = 2;
+
+    @Inject
+    private ClientThread clientThread;
+
+    @Inject
+    private CAHelperConfig config;
+
+    // Only touched on the client thread
+    private final Deque<Job> queue = new ArrayDeque<>();
+    private boolean pumpScheduled = false;
+
+    // Budget accounting
+    private long lastSliceNanos = 0;
+    private long maxSliceNanos = 0;
+    private long totalSliceNanos = 0;
+    private int sliceCount = 0;
+    private int overBudgetCount = 0;
+
+    /**
+     * A unit of work that can be suspended between chunks.
+     */
+    public interface Task
+    {
+        /**
+         * Run one small chunk of work.
+         * @return true once the task has finished
+         */
+        boolean runChunk();
+    }
+
+    /**
+     * Queue a resumable task. The returned future completes on the client
+     * thread once the final chunk has run.
+     */
+    public CompletableFuture<Void> submit(String name, Task task)
+    {
+        Job job = new Job(name, task);
+        clientThread.invokeLater(() -> {
+            queue.addLast(job);
+            schedulePump();
+        });
+        return job.future;
+    }
+
+    /**
+     * Queue a single piece of work that fits inside one chunk.
+     */
+    public CompletableFuture<Void> submit(String name, Runnable runnable)
+    {
+        return submit(name, () -> {
+            runnable.run();
+            return true;
+        });
+    }
+
+    /**
+     * Drop all queued work, failing any waiting futures.
+     */
+    public void cancelAll()
+    {
+        clientThread.invokeLater(() -> {
+            for (Job job : queue)
+            {
+                job.future.cancel(false);
+            }
+            queue.clear();
+        });
+    }
+
+    private void schedulePump()
+    {
+        if (pumpScheduled)
+        {
+            return;
+        }
+
+        pumpScheduled = true;
+        // ClientThread re-runs a BooleanSupplier every tick until it returns true
+        clientThread.invokeLater(this::pump);
+    }
+
+    private boolean pump()
+    {
+        long budgetNanos = TimeUnit.MILLISECONDS.toNanos(getBudgetMs());
+        long start = System.nanoTime();
+
+        while (!queue.isEmpty())
+        {
+            Job job = queue.peekFirst();
+            if (job.future.isCancelled())
+            {
+                queue.pollFirst();
+                continue;
+            }
+
+            boolean done;
+
+            try
+            {
+                done = job.task.runChunk();
+            }
+            catch (Exception e)
+            {
+                log.error("Scheduled task '{}' failed", job.name, e);
+                queue.pollFirst();
+                job.future.completeExceptionally(e);
+                continue;
+            }
+
+            job.chunks++;
+
+            if (done)
+            {
+                queue.pollFirst();
+                log.debug("Scheduled task '{}' finished in {} chunks", job.name, job.chunks);
+                job.future.complete(null);
+            }
+
+            if (System.nanoTime() - start >= budgetNanos)
+            {
+                break;
+            }
+        }
+
+        recordSlice(System.nanoTime() - start, budgetNanos);
+
+        if (queue.isEmpty())
+        {
+            pumpScheduled = false;
+            return true;
+        }
+
+        return false;
+    }
+
+    private void recordSlice(long elapsedNanos, long budgetNanos)
+    {
+        lastSliceNanos = elapsedNanos;
+        maxSliceNanos = Math.max(maxSliceNanos, elapsedNanos);
+        totalSliceNanos += elapsedNanos;
+        sliceCount++;
+
+        // A single chunk can overrun; track how often that happens
+        if (elapsedNanos > budgetNanos)
+        {
+            overBudgetCount++;
+        }
+    }
+
+    private int getBudgetMs()
+    {
+        int budget = config.clientThreadBudgetMs();
+        return budget > 0 ? budget : DEFAULT_BUDGET_MS;
+    }
+
+    public boolean isIdle()
+    {
+        return queue.isEmpty();
+    }
+
+    /**
+     * Summary of how much of the per-tick budget has been used.
+     */
+    public String getBudgetReport()
+    {
+        double budgetMs = getBudgetMs();
+        double lastMs = lastSliceNanos / 1_000_000.0;
+        double maxMs = maxSliceNanos / 1_000_000.0;
+        double avgMs = sliceCount > 0 ? (totalSliceNanos / 1_000_000.0) / sliceCount : 0.0;
+
+        return String.format("budget %.0fms, last %.2fms (%.0f%%), avg %.2fms, max %.2fms, %d slices, %d over budget, %d queued",
+                budgetMs, lastMs, (lastMs / budgetMs) * 100, avgMs, maxMs, sliceCount, overBudgetCount, queue.size());
+    }
+
+    private static class Job
+    {
+        final String name;
+        final Task task;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        int chunks = 0;
+
+        Job(String name, Task task)
+        {
+            this.name = name;
+            this.task = task;
+        }
+    }
+}
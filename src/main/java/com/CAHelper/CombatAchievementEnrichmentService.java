@@ -4,7 +4,6 @@ import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.client.RuneLite;
-import net.runelite.client.callback.ClientThread;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -13,14 +12,20 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @Singleton
 public class CombatAchievementEnrichmentService
 {
-    private static final String CACHE_FILE = "ca-wiki-cache.json"; // Store data in cache to limit calls to wiki
+    private static final String CACHE_FILE = "ca-wiki-cache-v2.json"; // Store data in cache to limit calls to wiki (v2: real task IDs)
+    private static final String LEGACY_CACHE_FILE = "ca-wiki-cache.json"; // v1, keyed by row index; unreadable now
     private static final long CACHE_EXPIRY_DAYS = 7; // Refresh wiki data weekly in line with RS updates
 
     @Inject
@@ -30,114 +35,274 @@ public class CombatAchievementEnrichmentService
     private WikiDataLoader wikiDataLoader;
 
     @Inject
-    private ClientThread clientThread;
+    private Gson gson;
 
     @Inject
-    private Gson gson;
+    private BossInterner bossInterner;
+
+    @Inject
+    private WikiDeltaJournal journal;
+
+    @Inject
+    private TaskDependencyGraph dependencyGraph;
+
+    // Swapped as a whole; readers never lock and never see a half-built store
+    private final AtomicReference<WikiSnapshot> wikiSnapshot = new AtomicReference<>(WikiSnapshot.EMPTY);
+    private final AtomicLong snapshotVersions = new AtomicLong();
+
+    // True while the published data came from an expired cache and has not been revalidated
+    private volatile boolean servingStale = false;
 
-    private Map<String, RoutingAlgorithm.CombatAchievement> wikiTasksByName = new HashMap<>();
-    private boolean wikiDataLoaded = false;
-    private Runnable panelRefreshCallback = null;
+    // True while the published rows are exactly the cache file plus the journal, so a
+    // delta can be journalled on top of them. False for bundled data or an unreadable cache.
+    private volatile boolean cacheBacked = false;
 
-    public void setPanelRefreshCallback(Runnable callback)
+    // Whether the v1 cache file has been looked for since startup
+    private volatile boolean legacyCacheChecked = false;
+
+    // Single-flight guard: the fetch currently running, if any
+    private final AtomicReference<CompletableFuture<Boolean>> inFlightFetch = new AtomicReference<>();
+    /**
+     * How the local wiki cache satisfied a load.
+     */
+    public enum CacheState
     {
-        this.panelRefreshCallback = callback;
-        log.info("Panel refresh callback set");
+        FRESH,  // served from cache, no fetch needed
+        STALE,  // served from an expired cache, revalidate in the background
+        BUNDLED, // no cache; served the snapshot shipped in the jar, revalidate in the background
+        MISS    // nothing usable on disk or in the jar, fetch before showing wiki data
     }
 
-    public void loadWikiData()
+    /**
+     * Publish wiki data from the local cache file. Expired data is still
+     * served, so nobody sees a degraded view while the wiki is revalidated.
+     * Without a usable cache, falls back to the snapshot bundled in the jar.
+     * Blocking - call off the client thread.
+     */
+    public CacheState loadFromDisk()
     {
-        if (wikiDataLoaded)
+        if (isWikiDataLoaded())
         {
             log.info("Wiki data already loaded");
+            return servingStale ? CacheState.STALE : CacheState.FRESH;
+        }
 
-            if (panelRefreshCallback != null)
-            {
-                log.info("Triggering panel refresh callback (data already loaded)");
-                clientThread.invokeLater(panelRefreshCallback);
-            }
+        log.info("Attempting to load wiki data from cache...");
 
-            return;
+        File cacheFile = new File(RuneLite.RUNELITE_DIR, CACHE_FILE);
+        if (!cacheFile.exists())
+        {
+            log.debug("Cache file doesn't exist");
+            return loadBundled();
         }
 
-        log.info("Attempting to load wiki data from cache...");
+        // Check cache age; journal appends count as refreshes too
+        long ageMs = System.currentTimeMillis() - Math.max(cacheFile.lastModified(), journal.lastModified());
+        long ageDays = TimeUnit.MILLISECONDS.toDays(ageMs);
+        boolean stale = ageDays > CACHE_EXPIRY_DAYS;
 
-        // Try loading from cache first
-        if (loadFromCache())
+        List<RoutingAlgorithm.CombatAchievement> cachedTasks = loadFromCache(cacheFile);
+        if (cachedTasks == null)
         {
-            log.info("Wiki data loaded from cache (fast)");
-            wikiDataLoaded = true;
+            return loadBundled();
+        }
 
-            if (panelRefreshCallback != null)
-            {
-                clientThread.invokeLater(panelRefreshCallback);
-            }
-            return;
+        publish(journal.replay(cachedTasks));
+        servingStale = stale;
+        cacheBacked = true;
+        deleteLegacyCache();
+
+        if (stale)
+        {
+            log.info("Serving expired wiki cache ({} days old) while revalidating", ageDays);
+            return CacheState.STALE;
         }
 
-        // Cache miss or expired - fetch fresh data
-        log.info("Cache miss or expired - loading fresh wiki data...");
-        loadWikiDataFresh();
+        log.info("Wiki data loaded from cache ({} days old)", ageDays);
+        return CacheState.FRESH;
     }
 
-    private void loadWikiDataFresh()
+    /**
+     * Lowest tier: publish the build-time snapshot. It is never written to the
+     * cache file, so the first successful fetch still replaces it.
+     */
+    private CacheState loadBundled()
     {
-        new Thread(() -> {
-            try
-            {
-                List<RoutingAlgorithm.CombatAchievement> wikiTasks = wikiDataLoader.loadAllAchievements();
-
-                wikiTasksByName = wikiTasks.stream()
-                        .collect(Collectors.toMap(
-                                task -> normalizeTaskName(task.getName()),
-                                task -> task,
-                                (existing, replacement) -> existing
-                        ));
+        List<RoutingAlgorithm.CombatAchievement> bundledTasks = wikiDataLoader.loadBundledSnapshot();
+        if (bundledTasks.isEmpty())
+        {
+            return CacheState.MISS;
+        }
 
-                log.info("Wiki data loaded: {} tasks", wikiTasksByName.size());
+        publish(bundledTasks);
+        servingStale = true;
+        cacheBacked = false;
+        log.info("Serving bundled wiki snapshot ({} tasks) while revalidating", bundledTasks.size());
+        return CacheState.BUNDLED;
+    }
 
-                // Save to cache
-                saveToCache(wikiTasks);
+    /**
+     * Fetch the wiki page, or attach to a fetch that is already running.
+     * Every caller that overlaps one fetch shares its single download and parse.
+     * @return completes with true if new data was published, false if the fetch failed or nothing changed
+     */
+    public CompletableFuture<Boolean> fetchFromWiki(Executor executor)
+    {
+        while (true)
+        {
+            CompletableFuture<Boolean> existing = inFlightFetch.get();
+            if (existing != null)
+            {
+                log.info("Wiki fetch already in flight - sharing its result");
+                return existing.copy();
+            }
 
-                wikiDataLoaded = true;
+            CompletableFuture<Boolean> flight = new CompletableFuture<>();
+            if (!inFlightFetch.compareAndSet(null, flight))
+            {
+                continue; // lost the race; attach to the winner
+            }
 
-                if (panelRefreshCallback != null)
-                {
-                    clientThread.invokeLater(panelRefreshCallback);
-                }
+            try
+            {
+                executor.execute(() -> {
+                    try
+                    {
+                        flight.complete(fetchAndPublish());
+                    }
+                    catch (Throwable t)
+                    {
+                        flight.completeExceptionally(t);
+                    }
+                    finally
+                    {
+                        inFlightFetch.compareAndSet(flight, null);
+                    }
+                });
             }
-            catch (Exception e)
+            catch (RejectedExecutionException e)
             {
-                log.error("Failed to load fresh wiki data", e);
-                wikiDataLoaded = false;
+                // Pipeline already shut down; don't leave later fetches waiting on this one
+                flight.completeExceptionally(e);
+                inFlightFetch.compareAndSet(flight, null);
             }
-        }, "WikiDataLoader").start();
+
+            // Callers get a copy so cancelling one of them can't cancel the shared fetch
+            return flight.copy();
+        }
     }
 
-    private boolean loadFromCache()
+    /**
+     * Fail and forget the in-flight fetch. Called on shutdown, when the executor may
+     * drop the queued fetch without running it, so nothing would ever complete it.
+     */
+    public void abandonFetch()
     {
-        try
+        CompletableFuture<Boolean> flight = inFlightFetch.getAndSet(null);
+        if (flight != null && flight.completeExceptionally(new CancellationException("Wiki fetch abandoned on shutdown")))
         {
-            File cacheFile = new File(RuneLite.RUNELITE_DIR, CACHE_FILE);
+            log.info("Abandoned in-flight wiki fetch");
+        }
+    }
 
-            if (!cacheFile.exists())
-            {
-                log.debug("Cache file doesn't exist");
-                return false;
-            }
+    /**
+     * Fetch and parse the wiki page, then publish whatever differs from what is loaded.
+     * Changed rows are patched into the current snapshot and appended to the journal;
+     * the full cache file is only rewritten when there is no base yet or on compaction.
+     * @return true if new data was published
+     */
+    private boolean fetchAndPublish()
+    {
+        log.info("Loading fresh wiki data...");
+
+        List<RoutingAlgorithm.CombatAchievement> wikiTasks = wikiDataLoader.loadAllAchievements();
+
+        if (wikiTasks.isEmpty())
+        {
+            log.warn("Wiki fetch returned no tasks - keeping cache-only data");
+            return false;
+        }
 
-            // Check cache age
-            long ageMs = System.currentTimeMillis() - cacheFile.lastModified();
-            long ageDays = TimeUnit.MILLISECONDS.toDays(ageMs);
+        WikiSnapshot current = wikiSnapshot.get();
+        File cacheFile = new File(RuneLite.RUNELITE_DIR, CACHE_FILE);
+        WikiDelta delta = WikiDelta.diff(current.getRows(), wikiTasks);
 
-            if (ageDays > CACHE_EXPIRY_DAYS)
+        if (delta.isEmpty())
+        {
+            // Same content - keep the current snapshot and just mark the cache fresh again
+            log.info("Wiki data unchanged ({} tasks)", wikiTasks.size());
+            if (!cacheBacked || !cacheFile.setLastModified(System.currentTimeMillis()))
             {
-                log.info("Cache expired ({} days old), fetching fresh data", ageDays);
-                return false;
+                // Current rows came from the bundled snapshot or a cache that failed to load,
+                // so the file on disk doesn't hold them; touching it would mark it fresh
+                saveToCache(wikiTasks);
             }
+            servingStale = false;
+            return false;
+        }
 
-            log.info("Loading from cache ({} days old)", ageDays);
+        if (!current.isLoaded() || !cacheBacked)
+        {
+            // Nothing to patch against - publish and write the whole list
+            WikiSnapshot snapshot = publish(wikiTasks);
+            servingStale = false;
+            log.info("Wiki data loaded: {} tasks (version {})", snapshot.getStore().size(), snapshot.getVersion());
+            saveToCache(wikiTasks);
+            return true;
+        }
+
+        WikiSnapshot snapshot = publish(current, delta);
+        servingStale = false;
+        log.info("Wiki data patched: {} changed, {} removed (version {})",
+                delta.getChanged().size(), delta.getRemoved().length, snapshot.getVersion());
 
+        if (journal.append(delta))
+        {
+            log.info("Compacting wiki journal into cache file");
+            saveToCache(snapshot.getRows());
+        }
+        else
+        {
+            cacheFile.setLastModified(System.currentTimeMillis());
+        }
+        return true;
+    }
+
+    /**
+     * Build a snapshot from parsed rows and publish it with a single reference store.
+     */
+    private WikiSnapshot publish(List<RoutingAlgorithm.CombatAchievement> wikiTasks)
+    {
+        WikiSnapshot snapshot = new WikiSnapshot(
+                snapshotVersions.incrementAndGet(),
+                WikiAttributeStore.build(wikiTasks, bossInterner),
+                new ArrayList<>(wikiTasks)
+        );
+        wikiSnapshot.set(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Publish a copy of the current snapshot with only the delta's records patched.
+     */
+    private WikiSnapshot publish(WikiSnapshot current, WikiDelta delta)
+    {
+        WikiSnapshot snapshot = new WikiSnapshot(
+                snapshotVersions.incrementAndGet(),
+                current.getStore().patch(delta, bossInterner),
+                delta.applyTo(current.getRows())
+        );
+        wikiSnapshot.set(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * @return the cached rows, or null on a miss
+     */
+    private List<RoutingAlgorithm.CombatAchievement> loadFromCache(File cacheFile)
+    {
+        try
+        {
             // Load and deserialize
             Type listType = new TypeToken<List<RoutingAlgorithm.CombatAchievement>>(){}.getType();
             List<RoutingAlgorithm.CombatAchievement> wikiTasks;
@@ -150,29 +315,22 @@ public class CombatAchievementEnrichmentService
             if (wikiTasks == null || wikiTasks.isEmpty())
             {
                 log.warn("Cache file empty or invalid");
-                return false;
+                return null;
             }
 
-            // Index by name
-            wikiTasksByName = wikiTasks.stream()
-                    .collect(Collectors.toMap(
-                            task -> normalizeTaskName(task.getName()),
-                            task -> task,
-                            (existing, replacement) -> existing
-                    ));
-
-            log.info("Loaded {} tasks from cache", wikiTasksByName.size());
-            return true;
+            log.info("Loaded {} tasks from cache", wikiTasks.size());
+            return wikiTasks;
         }
         catch (Exception e)
         {
             log.error("Failed to load from cache", e);
-            return false;
+            return null;
         }
     }
 
     private void saveToCache(List<RoutingAlgorithm.CombatAchievement> wikiTasks)
     {
+        cacheBacked = false;
         try
         {
             File cacheFile = new File(RuneLite.RUNELITE_DIR, CACHE_FILE);
@@ -183,6 +341,11 @@ public class CombatAchievementEnrichmentService
             }
 
             log.info("Saved {} tasks to cache", wikiTasks.size());
+
+            // The full file now holds everything the journal recorded
+            journal.clear();
+            cacheBacked = true;
+            deleteLegacyCache();
         }
         catch (Exception e)
         {
@@ -190,116 +353,131 @@ public class CombatAchievementEnrichmentService
         }
     }
 
-    public List<RoutingAlgorithm.CombatAchievement> getEnrichedIncompleteTasks()
+    /**
+     * Remove the v1 cache file once a v2 cache has loaded or been written, so it
+     * doesn't sit in the RuneLite directory forever.
+     */
+    private void deleteLegacyCache()
     {
-        List<RoutingAlgorithm.CombatAchievement> cacheTasks = combatAchievementService.getIncompleteTasks();
-
-        if (!wikiDataLoaded)
+        if (legacyCacheChecked)
         {
-            log.warn("Wiki data not loaded yet - returning cache-only tasks");
-            return cacheTasks;
+            return;
         }
+        legacyCacheChecked = true;
 
-        List<RoutingAlgorithm.CombatAchievement> enriched = new ArrayList<>();
-
-        for (RoutingAlgorithm.CombatAchievement cacheTask : cacheTasks)
+        File legacyFile = new File(RuneLite.RUNELITE_DIR, LEGACY_CACHE_FILE);
+        if (legacyFile.exists())
         {
-            String normalizedName = normalizeTaskName(cacheTask.getName());
-            RoutingAlgorithm.CombatAchievement wikiTask = wikiTasksByName.get(normalizedName);
-
-            if (wikiTask != null)
+            if (legacyFile.delete())
             {
-                enriched.add(new RoutingAlgorithm.CombatAchievement(
-                        cacheTask.getId(),
-                        wikiTask.getName(),
-                        wikiTask.getMonster(),
-                        cacheTask.getDifficulty(),
-                        wikiTask.getType(),
-                        0.0,
-                        wikiTask.getDescription(),
-                        cacheTask.getPrerequisiteIds()
-                ));
+                log.info("Deleted legacy wiki cache {}", LEGACY_CACHE_FILE);
             }
             else
             {
-                enriched.add(cacheTask);
+                log.warn("Could not delete legacy wiki cache {}", legacyFile);
             }
         }
+    }
+
+    public List<RoutingAlgorithm.CombatAchievement> getEnrichedIncompleteTasks()
+    {
+        if (!isWikiDataLoaded())
+        {
+            log.warn("Wiki data not loaded yet - returning cache-only tasks");
+            return combatAchievementService.getIncompleteTasks();
+        }
 
-        return enriched;
+        return getEnrichedTasks(false, null);
     }
 
     public List<RoutingAlgorithm.CombatAchievement> getAllEnrichedTasks()
+    {
+        return getEnrichedTasks(true, null);
+    }
+
+    /**
+     * Enriched tasks for just the selected IDs, e.g. the result of a {@link TaskQueryEngine} query.
+     */
+    public List<RoutingAlgorithm.CombatAchievement> getEnrichedTasks(TaskBitmap selection)
+    {
+        return getEnrichedTasks(true, selection);
+    }
+
+    /**
+     * Join cache tasks with the wiki columns by task ID.
+     * Player completion comes from the varp bitset, completion rate from the wiki,
+     * prerequisites from the dependency graph.
+     * @param selection task IDs to include, or null for all
+     */
+    private List<RoutingAlgorithm.CombatAchievement> getEnrichedTasks(boolean includeCompleted, TaskBitmap selection)
     {
         if (!combatAchievementService.isInitialized())
         {
             return Collections.emptyList();
         }
 
-        List<RoutingAlgorithm.CombatAchievement> allTasks = new ArrayList<>();
-        Collection<CombatAchievementService.CombatAchievementTask> cacheTasks =
-                combatAchievementService.getAllTasks();
+        TaskStore store = combatAchievementService.getStore();
+        WikiSnapshot snapshot = wikiSnapshot.get();
+        WikiAttributeStore wiki = snapshot.getStore();
+        long[] completionBits = combatAchievementService.getCompletionBits();
 
-        for (CombatAchievementService.CombatAchievementTask cacheTask : cacheTasks)
-        {
-            boolean complete = combatAchievementService.isTaskComplete(cacheTask.id);
-            double completionRate = complete ? 100.0 : 0.0;
+        // Only the completions since the last refresh are applied
+        dependencyGraph.sync(snapshot, completionBits);
 
-            String normalizedName = normalizeTaskName(cacheTask.name);
-            RoutingAlgorithm.CombatAchievement wikiTask = wikiTasksByName.get(normalizedName);
+        List<RoutingAlgorithm.CombatAchievement> tasks = new ArrayList<>(selection != null ? selection.cardinality() : store.size());
 
-            RoutingAlgorithm.CombatAchievement enrichedTask;
+        for (int taskId : store.ids())
+        {
+            if (selection != null && !selection.get(taskId))
+            {
+                continue;
+            }
+
+            boolean complete = CombatAchievementService.isBitSet(completionBits, taskId);
+            if (complete && !includeCompleted)
+            {
+                continue;
+            }
 
-            if (wikiTask != null)
+            if (wiki.contains(taskId))
             {
-                enrichedTask = new RoutingAlgorithm.CombatAchievement(
-                        cacheTask.id,
-                        wikiTask.getName(),
-                        wikiTask.getMonster(),
-                        cacheTask.difficulty,
-                        wikiTask.getType(),
-                        completionRate,
-                        wikiTask.getDescription(),
-                        Collections.emptyList()
-                );
+                float completionRate = wiki.getCompletionRate(taskId);
+                RoutingAlgorithm.TaskType type = wiki.getType(taskId);
+                int bossId = wiki.getBossId(taskId);
+
+                tasks.add(new RoutingAlgorithm.CombatAchievement(
+                        taskId,
+                        wiki.getName(taskId),
+                        bossInterner.getName(bossId),
+                        bossId,
+                        store.getDifficulty(taskId),
+                        type != null ? type : store.getType(taskId),
+                        Float.isNaN(completionRate) ? 0.0 : completionRate,
+                        complete,
+                        wiki.getDescription(taskId),
+                        dependencyGraph.getPrerequisites(taskId)
+                ));
             }
             else
             {
-                enrichedTask = cacheTask.toRoutingTask();
-                enrichedTask = new RoutingAlgorithm.CombatAchievement(
-                        enrichedTask.getId(),
-                        enrichedTask.getName(),
-                        enrichedTask.getMonster(),
-                        enrichedTask.getDifficulty(),
-                        enrichedTask.getType(),
-                        completionRate,
-                        enrichedTask.getDescription(),
-                        enrichedTask.getPrerequisiteIds()
-                );
+                tasks.add(combatAchievementService.toRoutingTask(taskId, complete));
             }
-
-            allTasks.add(enrichedTask);
         }
 
-        return allTasks;
+        return tasks;
     }
 
-    private String normalizeTaskName(String name)
+    public boolean isWikiDataLoaded()
     {
-        if (name == null)
-        {
-            return "";
-        }
-
-        return name.toLowerCase()
-                .replaceAll("[^a-z0-9\\s]", "")
-                .replaceAll("\\s+", " ")
-                .trim();
+        return wikiSnapshot.get().isLoaded();
     }
 
-    public boolean isWikiDataLoaded()
+    /**
+     * Current wiki data; safe to read from any thread.
+     */
+    public WikiSnapshot getSnapshot()
     {
-        return wikiDataLoaded;
+        return wikiSnapshot.get();
     }
 
     public void clearCache()
@@ -310,7 +488,9 @@ public class CombatAchievementEnrichmentService
             cacheFile.delete();
             log.info("Cache cleared");
         }
-        wikiDataLoaded = false;
-        wikiTasksByName.clear();
+        journal.clear();
+        wikiSnapshot.set(WikiSnapshot.EMPTY);
+        servingStale = false;
+        cacheBacked = false;
     }
 }
\ No newline at end of file
@@ -5,20 +5,26 @@ import net.runelite.client.callback.ClientThread;
 import net.runelite.client.ui.ColorScheme;
 import net.runelite.client.ui.FontManager;
 import net.runelite.client.ui.PluginPanel;
+import net.runelite.client.ui.components.IconTextField;
 import net.runelite.client.util.LinkBrowser;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 
 @Slf4j
 public class CombatAchievementPanel extends PluginPanel
 {
+    private static final int SEARCH_RESULT_LIMIT = 50;
+    // Rows added per event-queue pass, so the first results show before the rest are built
+    private static final int SEARCH_RENDER_BATCH = 10;
+
     private final CAHelperPlugin plugin;
     private final CombatAchievementService combatAchievementService;
     private final RoutingAlgorithm routingAlgorithm;
@@ -30,8 +36,12 @@ public class CombatAchievementPanel extends PluginPanel
     private final JPanel cardPanel;
     private final JPanel bossList;
     private final JPanel bossDetail;
+    private final IconTextField searchBar;
+    private final JPanel searchResults;
+    private int searchGeneration = 0;
     private RoutingAlgorithm.BossRecommendation selectedBoss;
-    private final Map<String, Boolean> taskExpandedState = new HashMap<>();
+    private final Map<Integer, Boolean> taskExpandedState = new HashMap<>(); // keyed by task ID
+    private final BossViewCache viewCache = new BossViewCache();
 
     public CombatAchievementPanel(
             CAHelperPlugin plugin,
@@ -90,7 +100,17 @@ public class CombatAchievementPanel extends PluginPanel
         progressBox.add(Box.createVerticalStrut(5));
 
         // Progress bar
-        progressBar = new JProgressBar(0, 100);
+        progressBar = new JProgressBar(0, 100)
+        {
+            @Override
+            public JToolTip createToolTip()
+            {
+                // The route tooltip is plain lines, not HTML
+                JToolTip tip = new MultiLineToolTip();
+                tip.setComponent(this);
+                return tip;
+            }
+        };
         progressBar.setStringPainted(true);
         progressBar.setFont(FontManager.getRunescapeSmallFont());
         progressBar.setForeground(ColorScheme.BRAND_ORANGE);
@@ -101,6 +121,40 @@ public class CombatAchievementPanel extends PluginPanel
 
         headerPanel.add(progressBox, BorderLayout.CENTER);
         topContainer.add(headerPanel);
+
+        // Search across every task, not just the listed bosses
+        JPanel searchPanel = new JPanel(new BorderLayout());
+        searchPanel.setBackground(ColorScheme.DARK_GRAY_COLOR);
+        searchPanel.setBorder(new EmptyBorder(0, 10, 10, 10));
+
+        searchBar = new IconTextField();
+        searchBar.setIcon(IconTextField.Icon.SEARCH);
+        searchBar.setPreferredSize(new Dimension(PluginPanel.PANEL_WIDTH - 20, 30));
+        searchBar.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+        searchBar.setHoverBackgroundColor(ColorScheme.DARK_GRAY_HOVER_COLOR);
+        searchBar.getDocument().addDocumentListener(new DocumentListener()
+        {
+            @Override
+            public void insertUpdate(DocumentEvent e)
+            {
+                updateSearch();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e)
+            {
+                updateSearch();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e)
+            {
+                updateSearch();
+            }
+        });
+        searchBar.addClearListener(this::updateSearch);
+        searchPanel.add(searchBar, BorderLayout.CENTER);
+        topContainer.add(searchPanel);
         add(topContainer, BorderLayout.NORTH);
 
         // CardLayout for switching between list and detail
@@ -118,12 +172,48 @@ public class CombatAchievementPanel extends PluginPanel
         bossDetail.setBackground(ColorScheme.DARK_GRAY_COLOR);
         cardPanel.add(bossDetail, "detail");
 
+        // Search results view
+        searchResults = createBossListView();
+        cardPanel.add(searchResults, "search");
+
         add(cardPanel, BorderLayout.CENTER);
 
         // Show list by default
         cardLayout.show(cardPanel, "list");
     }
 
+    /**
+     * Cheapest set of tasks that reaches the next tier, as tooltip lines for {@link MultiLineToolTip}.
+     */
+    private String buildPlanTooltip(PointPlanner.Plan plan)
+    {
+        if (!plan.isReachable())
+        {
+            return "Not enough incomplete tasks to reach " + plan.getTierName();
+        }
+
+        TaskStore store = combatAchievementService.getStore();
+        StringBuilder tip = new StringBuilder("Cheapest route to ")
+                .append(plan.getTierName())
+                .append(": ")
+                .append(plan.getTaskIds().size())
+                .append(" tasks");
+
+        int shown = 0;
+        for (int taskId : plan.getTaskIds())
+        {
+            if (shown++ == 15)
+            {
+                tip.append("\n... and ").append(plan.getTaskIds().size() - 15).append(" more");
+                break;
+            }
+            tip.append('\n').append(store.getPoints(taskId)).append(" pts - ")
+                    .append(store.getName(taskId));
+        }
+
+        return tip.toString();
+    }
+
     private JPanel createBossListView()
     {
         JPanel panel = new JPanel();
@@ -133,16 +223,32 @@ public class CombatAchievementPanel extends PluginPanel
         return panel;
     }
 
+    /**
+     * Client thread only; also publishes a fresh search index if the tasks changed.
+     */
     public void loadRecommendations()
+    {
+        plugin.getSearchIndex().refresh();
+        // Show all Bosses at this point, mostly for debug but also dopamine of seeing boss greenlogged
+        render(() -> routingAlgorithm.getRecommendations(Integer.MAX_VALUE));
+    }
+
+    /**
+     * Re-order the boss list after a sort setting changed, keeping the filtered
+     * recommendations from the last load.
+     */
+    public void reorderRecommendations()
+    {
+        render(() -> routingAlgorithm.getRerankedRecommendations(Integer.MAX_VALUE));
+    }
+
+    private void render(Supplier<List<RoutingAlgorithm.BossRecommendation>> source)
     {
         bossList.removeAll();
 
         try
         {
-            List<RoutingAlgorithm.BossRecommendation> allRecommendations = routingAlgorithm.getRecommendations(Integer.MAX_VALUE);
-
-            // Show all Bosses at this point, mostly for debug but also dopamine of seeing boss greenlogged
-            List<RoutingAlgorithm.BossRecommendation> recommendations = allRecommendations;
+            List<RoutingAlgorithm.BossRecommendation> recommendations = source.get();
 
             if (recommendations.isEmpty())
             {
@@ -187,6 +293,7 @@ public class CombatAchievementPanel extends PluginPanel
 
                 progressBar.setValue(percentage);
                 progressBar.setString(percentage + "%");
+                progressBar.setToolTipText(buildPlanTooltip(plugin.getPointPlanner().plan()));
             }
             progressLabel.setForeground(Color.WHITE);
 
@@ -241,7 +348,7 @@ public class CombatAchievementPanel extends PluginPanel
                 new EmptyBorder(8, 10, 8, 10)
         ));
 
-        JLabel bossLabel = new JLabel("<html>" + rec.getBossName() + "</html>");
+        WrappedTextLabel bossLabel = new WrappedTextLabel(rec.getBossName());
         bossLabel.setFont(FontManager.getRunescapeBoldFont());
         bossLabel.setForeground(textColor);
         nameBox.add(bossLabel, BorderLayout.CENTER);
@@ -299,6 +406,139 @@ public class CombatAchievementPanel extends PluginPanel
         return row;
     }
 
+    private boolean isSearching()
+    {
+        String text = searchBar.getText();
+        return text != null && !text.trim().isEmpty();
+    }
+
+    /**
+     * Re-run the search for the current text. Results render a batch at a time,
+     * and a newer keystroke abandons any batches still queued for an older one.
+     */
+    private void updateSearch()
+    {
+        int generation = ++searchGeneration;
+        searchResults.removeAll();
+
+        if (!isSearching())
+        {
+            searchResults.revalidate();
+            if (selectedBoss == null)
+            {
+                cardLayout.show(cardPanel, "list");
+            }
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<TaskSearchIndex.Result> results = plugin.getSearchIndex().search(searchBar.getText(), SEARCH_RESULT_LIMIT);
+        log.debug("Search '{}': {} results in {}us", searchBar.getText(), results.size(), (System.nanoTime() - start) / 1000);
+
+        selectedBoss = null;
+        cardLayout.show(cardPanel, "search");
+
+        if (results.isEmpty())
+        {
+            JLabel empty = new JLabel("No matching tasks");
+            empty.setFont(FontManager.getRunescapeSmallFont());
+            empty.setForeground(Color.GRAY);
+            empty.setBorder(new EmptyBorder(0, 10, 0, 10));
+            searchResults.add(empty);
+            searchResults.revalidate();
+            searchResults.repaint();
+            return;
+        }
+
+        renderSearchResults(results, 0, generation);
+    }
+
+    private void renderSearchResults(List<TaskSearchIndex.Result> results, int from, int generation)
+    {
+        if (generation != searchGeneration)
+        {
+            return; // superseded by a newer query
+        }
+
+        int to = Math.min(results.size(), from + SEARCH_RENDER_BATCH);
+        for (int i = from; i < to; i++)
+        {
+            searchResults.add(createSearchResultRow(results.get(i)));
+        }
+        searchResults.revalidate();
+        searchResults.repaint();
+
+        if (to < results.size())
+        {
+            SwingUtilities.invokeLater(() -> renderSearchResults(results, to, generation));
+        }
+    }
+
+    private JPanel createSearchResultRow(TaskSearchIndex.Result result)
+    {
+        RoutingAlgorithm.BossRecommendation rec = routingAlgorithm.getRecommendation(result.getBossId());
+
+        JPanel row = new JPanel(new BorderLayout());
+        row.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+        row.setBorder(BorderFactory.createCompoundBorder(
+                new EmptyBorder(0, 7, 5, 7),
+                BorderFactory.createCompoundBorder(
+                        BorderFactory.createLineBorder(Color.GRAY, 1),
+                        new EmptyBorder(5, 8, 5, 8))
+        ));
+        row.setMaximumSize(new Dimension(Integer.MAX_VALUE, 60));
+
+        WrappedTextLabel nameLabel = new WrappedTextLabel(result.getName());
+        nameLabel.setFont(FontManager.getRunescapeBoldFont());
+        nameLabel.setForeground(Color.WHITE);
+        row.add(nameLabel, BorderLayout.NORTH);
+
+        String monster = result.getMonster() != null ? result.getMonster() + " - " : "";
+        JLabel metaLabel = new JLabel(monster + result.getDifficulty());
+        metaLabel.setFont(FontManager.getRunescapeSmallFont());
+        metaLabel.setForeground(getDifficultyColor(result.getDifficulty()).brighter());
+        row.add(metaLabel, BorderLayout.SOUTH);
+
+        if (rec == null)
+        {
+            // The boss has nothing left under the current filters
+            row.setToolTipText("Hidden by your filters");
+            return row;
+        }
+
+        row.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        row.addMouseListener(new java.awt.event.MouseAdapter()
+        {
+            @Override
+            public void mouseClicked(java.awt.event.MouseEvent e)
+            {
+                selectedBoss = rec;
+                showBossDetail();
+            }
+        });
+
+        return row;
+    }
+
+    private JPanel createTripHeader(TripPlan.Trip trip)
+    {
+        JPanel header = new JPanel(new BorderLayout());
+        header.setBackground(ColorScheme.DARK_GRAY_COLOR);
+        header.setBorder(new EmptyBorder(3, 0, 3, 0));
+
+        JLabel tripLabel = new JLabel("Trip " + trip.getNumber());
+        tripLabel.setFont(FontManager.getRunescapeBoldFont());
+        tripLabel.setForeground(ColorScheme.BRAND_ORANGE);
+        header.add(tripLabel, BorderLayout.WEST);
+
+        JLabel pointsLabel = new JLabel(trip.getTasks().size() + " tasks, " + trip.getPoints() + " pts");
+        pointsLabel.setFont(FontManager.getRunescapeSmallFont());
+        pointsLabel.setForeground(Color.LIGHT_GRAY);
+        header.add(pointsLabel, BorderLayout.EAST);
+
+        return header;
+    }
+
     private void showBossDetail()
     {
         if (selectedBoss == null)
@@ -315,7 +555,7 @@ public class CombatAchievementPanel extends PluginPanel
         titlePanel.setBackground(ColorScheme.DARK_GRAY_COLOR);
         titlePanel.setBorder(new EmptyBorder(7, 7, 5, 7));
 
-        JLabel bossTitle = new JLabel("<html><div style='text-align: center;'>" + selectedBoss.getBossName() + "</div></html>");
+        WrappedTextLabel bossTitle = new WrappedTextLabel(selectedBoss.getBossName());
         bossTitle.setFont(FontManager.getRunescapeBoldFont());
         bossTitle.setForeground(Color.WHITE);
         bossTitle.setHorizontalAlignment(SwingConstants.CENTER);
@@ -349,18 +589,19 @@ public class CombatAchievementPanel extends PluginPanel
         backBtn.setFocusPainted(false);
         backBtn.addActionListener(e -> {
             selectedBoss = null;
-            cardLayout.show(cardPanel, "list");
+            cardLayout.show(cardPanel, isSearching() ? "search" : "list");
         });
 
         controlPanel.add(backBtn);
 
-        int totalTasks = selectedBoss.getAvailableTasks().size();
-        long completedTasks = selectedBoss.getAvailableTasks().stream()
-                .filter(task -> task.getCompletionRate() >= 100)
-                .count();
+        BossViewCache.BossView view = viewCache.get(selectedBoss);
+        log.debug("Boss view cache: {}", viewCache.getStats());
+        int totalTasks = view.getTotalCount();
+        int completedTasks = view.getCompletedCount();
 
         JLabel counterLabel = new JLabel("  " + completedTasks + "/" + totalTasks + " completed");
         counterLabel.setFont(FontManager.getRunescapeBoldFont());
+        counterLabel.setToolTipText(view.getPointsRemaining() + " points remaining");
 
         if (completedTasks == 0)
         {
@@ -378,43 +619,44 @@ public class CombatAchievementPanel extends PluginPanel
         controlPanel.add(counterLabel);
         wrapperPanel.add(controlPanel);
 
-        // Sort tasks with incomplete tasks first then complete tasks at the bottom
-        List<RoutingAlgorithm.CombatAchievement> incompleteTasks = new ArrayList<>();
-        List<RoutingAlgorithm.CombatAchievement> completeTasks = new ArrayList<>();
+        // Incomplete tasks grouped into trips, then locked tasks, completed tasks at the bottom
+        TripPlan tripPlan = view.getTripPlan();
+        List<RoutingAlgorithm.CombatAchievement> lockedTasks = view.getLockedTasks();
+        List<RoutingAlgorithm.CombatAchievement> completeTasks = view.getCompleteTasks();
 
-        for (RoutingAlgorithm.CombatAchievement task : selectedBoss.getAvailableTasks())
+        // Add incomplete tasks, one header per trip
+        for (TripPlan.Trip trip : tripPlan.getTrips())
         {
-            if (task.getCompletionRate() >= 100)
+            if (tripPlan.getTripCount() > 1)
             {
-                completeTasks.add(task);
+                wrapperPanel.add(createTripHeader(trip));
             }
-            else
+
+            for (RoutingAlgorithm.CombatAchievement task : trip.getTasks())
             {
-                incompleteTasks.add(task);
+                wrapperPanel.add(createTaskDetailPanel(task, false, null));
+                wrapperPanel.add(Box.createVerticalStrut(5));
             }
         }
 
-        incompleteTasks.sort(Comparator.comparing(RoutingAlgorithm.CombatAchievement::getName));
-        completeTasks.sort(Comparator.comparing(RoutingAlgorithm.CombatAchievement::getName));
-
-        // Add incomplete tasks
-        for (int i = 0; i < incompleteTasks.size(); i++)
+        // Add locked tasks, each with what it is waiting on
+        for (RoutingAlgorithm.CombatAchievement task : lockedTasks)
         {
-            RoutingAlgorithm.CombatAchievement task = incompleteTasks.get(i);
-            JPanel taskPanel = createTaskDetailPanel(task, false);
-            wrapperPanel.add(taskPanel);
+            wrapperPanel.add(createTaskDetailPanel(task, false, selectedBoss.getLockedBy().get(task.getId())));
+            wrapperPanel.add(Box.createVerticalStrut(5));
+        }
 
-            if (i < incompleteTasks.size() - 1 || !completeTasks.isEmpty())
-            {
-                wrapperPanel.add(Box.createVerticalStrut(5));
-            }
+        if (completeTasks.isEmpty() && wrapperPanel.getComponentCount() > 1)
+        {
+            // No gap after the last task
+            wrapperPanel.remove(wrapperPanel.getComponentCount() - 1);
         }
 
         // Add completed tasks
         for (int i = 0; i < completeTasks.size(); i++)
         {
             RoutingAlgorithm.CombatAchievement task = completeTasks.get(i);
-            JPanel taskPanel = createTaskDetailPanel(task, true);
+            JPanel taskPanel = createTaskDetailPanel(task, true, null);
             wrapperPanel.add(taskPanel);
 
             if (i < completeTasks.size() - 1)
@@ -447,14 +689,17 @@ public class CombatAchievementPanel extends PluginPanel
         plugin.setCurrentTask(selectedBoss);
     }
 
-    private JPanel createTaskDetailPanel(RoutingAlgorithm.CombatAchievement task, boolean isCompleted)
+    /**
+     * @param lockedBy the incomplete prerequisites of a locked task, or null if it isn't locked
+     */
+    private JPanel createTaskDetailPanel(RoutingAlgorithm.CombatAchievement task, boolean isCompleted, String lockedBy)
     {
         if (task == null || task.getDifficulty() == null || task.getName() == null)
         {
             return new JPanel();
         }
 
-        String taskKey = task.getName();
+        int taskKey = task.getId();
         // Completed tasks default to collapsed, incomplete default to expanded
         taskExpandedState.putIfAbsent(taskKey, !isCompleted);
 
@@ -486,7 +731,7 @@ public class CombatAchievementPanel extends PluginPanel
         if (!isCompleted)
         {
             JCheckBox skipCheckbox = new JCheckBox();
-            skipCheckbox.setSelected(plugin.getManualCompletionManager().isManuallyCompleted(task.getId()));
+            skipCheckbox.setSelected(plugin.getTaskQuery().skipped().get(task.getId()));
             skipCheckbox.setBackground(bgColor);
             skipCheckbox.setToolTipText("Skip this task");
             skipCheckbox.setFocusPainted(false);
@@ -500,10 +745,10 @@ public class CombatAchievementPanel extends PluginPanel
 
             headerPanel.add(skipCheckbox, BorderLayout.WEST);
         }
-        // Task name with HTML wrapping
-        JLabel nameLabel = new JLabel("<html>" + task.getName() + "</html>");
+        // Task name, wrapped
+        WrappedTextLabel nameLabel = new WrappedTextLabel(task.getName());
         nameLabel.setFont(FontManager.getRunescapeBoldFont());
-        nameLabel.setForeground(isCompleted ? new Color(150, 255, 150) : Color.WHITE);
+        nameLabel.setForeground(isCompleted ? new Color(150, 255, 150) : lockedBy != null ? Color.LIGHT_GRAY : Color.WHITE);
         headerPanel.add(nameLabel, BorderLayout.CENTER);
 
         // Arrow indicator
@@ -529,6 +774,15 @@ public class CombatAchievementPanel extends PluginPanel
         // Spacing
         innerPanel.add(Box.createVerticalStrut(6));
 
+        if (lockedBy != null)
+        {
+            WrappedTextLabel lockedLabel = new WrappedTextLabel(lockedBy.isEmpty() ? "Locked" : "Locked by " + lockedBy);
+            lockedLabel.setFont(FontManager.getRunescapeSmallFont());
+            lockedLabel.setForeground(ColorScheme.BRAND_ORANGE);
+            innerPanel.add(lockedLabel);
+            innerPanel.add(Box.createVerticalStrut(4));
+        }
+
         // Difficulty and points
         String pointsText = task.getPoints() == 1 ? "pt" : "pts";
         String difficultyText = task.getDifficulty().toString();
@@ -543,8 +797,9 @@ public class CombatAchievementPanel extends PluginPanel
         {
             innerPanel.add(Box.createVerticalStrut(4));
 
-            JLabel descLabel = new JLabel("<html><font color='gray'>" + task.getDescription() + "</font></html>");
+            WrappedTextLabel descLabel = new WrappedTextLabel(task.getDescription());
             descLabel.setFont(FontManager.getRunescapeSmallFont());
+            descLabel.setForeground(Color.GRAY);
             innerPanel.add(descLabel);
         }
 
@@ -616,11 +871,7 @@ public class CombatAchievementPanel extends PluginPanel
             return 0;
         }
 
-        double totalCompletion = tasks.stream()
-                .mapToDouble(RoutingAlgorithm.CombatAchievement::getCompletionRate)
-                .sum();
-
-        return (int) (totalCompletion / tasks.size());
+        return (boss.getCompletedCount() * 100) / tasks.size();
     }
 
     Color getDifficultyColor(RoutingAlgorithm.Difficulty difficulty)
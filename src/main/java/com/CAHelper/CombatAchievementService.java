@@ -21,6 +21,12 @@ public class CombatAchievementService
     @Inject
     private Client client;
 
+    @Inject
+    private TaskTableCache taskTableCache;
+
+    @Inject
+    private BossInterner bossInterner;
+
     // Enum IDs for each tier
     private static final int[] TIER_ENUM_IDS = {
             3981, // Easy
@@ -57,17 +63,22 @@ public class CombatAchievementService
     private static final int PARAM_TASK_ID = 1306;
     private static final int PARAM_TASK_NAME = 1308;
     private static final int PARAM_TASK_DESCRIPTION = 1309;
+    private static final int PARAM_TASK_MONSTER = 1312;
+
+    // Enum mapping the struct monster param to the boss name
+    private static final int MONSTER_ENUM_ID = 3970;
 
-    // Map of task ID -> task data
-    private Map<Integer, CombatAchievementTask> taskMap = new HashMap<>();
+    // Task columns indexed by task ID, with names in side tables
+    private final TaskStore store = new TaskStore();
 
-    // Map of task name -> task (for lookups by name)
-    private Map<String, CombatAchievementTask> taskNameMap = new HashMap<>();
+    // Monster ID -> boss name, rebuilt from the cache on every load
+    private BossDictionary bossDictionary = BossDictionary.empty();
 
     private boolean initialized = false;
 
     /**
      * Initialize by loading all CA tasks from cache.
+     * Runs the whole load in one go - prefer {@link #createLoadTask()} through the loading pipeline.
      */
     public void initialize()
     {
@@ -81,32 +92,155 @@ public class CombatAchievementService
 
         try
         {
-            taskMap.clear();
-            taskNameMap.clear();
+            TaskLoader loader = createLoadTask();
+            loader.fingerprint();
+            loader.readTableCache();
+            while (!loader.runChunk())
+            {
+                // keep going until every tier is loaded
+            }
+            loader.saveTableCache();
+        }
+        catch (Exception e)
+        {
+            log.error("Failed to load CA tasks from cache", e);
+            initialized = false;
+        }
+    }
+
+    /**
+     * Create a resumable load. Run {@link TaskLoader#fingerprint()} on the client thread,
+     * {@link TaskLoader#readTableCache()} off it, then the loader's chunks on the client
+     * thread, and finally {@link TaskLoader#saveTableCache()} off it again.
+     */
+    public TaskLoader createLoadTask()
+    {
+        return new TaskLoader();
+    }
 
-            // Load tasks from each tier enum
+    /**
+     * Walks the tier enums, then either restores the persisted table or
+     * decodes the structs a single lookup at a time. The table file is only
+     * read and written by the off-thread steps.
+     */
+    public class TaskLoader implements ClientThreadScheduler.Task
+    {
+        // Cached tasks added to the store per chunk
+        private static final int RESTORE_CHUNK_SIZE = 64;
+
+        private int[][] structIdsByTier = null;
+        private long fingerprint;
+        private int tierIndex = 0;
+        private int structIndex = 0;
+
+        // Set by readTableCache on a hit
+        private List<CombatAchievementTask> cached = null;
+        private int restoreIndex = 0;
+
+        // Set once the structs were decoded, for saveTableCache
+        private Collection<CombatAchievementTask> decoded = null;
+
+        private volatile boolean cancelled = false;
+
+        /**
+         * Reset the store and fingerprint the tier enums. Client thread only;
+         * enum lookups are cheap, so this fits in one chunk.
+         */
+        public void fingerprint()
+        {
+            store.clear();
+            initialized = false;
+
+            bossDictionary = BossDictionary.fromEnum(client, MONSTER_ENUM_ID);
+
+            structIdsByTier = new int[TIER_ENUM_IDS.length][];
             for (int i = 0; i < TIER_ENUM_IDS.length; i++)
             {
-                int enumId = TIER_ENUM_IDS[i];
-                RoutingAlgorithm.Difficulty difficulty = getDifficultyForTier(i);
+                structIdsByTier[i] = loadStructIds(TIER_ENUM_IDS[i]);
+            }
+            fingerprint = TaskTableCache.fingerprint(TIER_ENUM_IDS, structIdsByTier);
+        }
 
-                loadTasksFromEnum(enumId, difficulty);
+        /**
+         * Read and parse the persisted table. Blocking - call off the client thread.
+         */
+        public void readTableCache()
+        {
+            cached = taskTableCache.load(fingerprint);
+        }
+
+        /**
+         * Persist the table if it was decoded from structs. Blocking - call off the client thread.
+         */
+        public void saveTableCache()
+        {
+            if (decoded != null && !cancelled)
+            {
+                taskTableCache.save(fingerprint, decoded);
             }
+        }
 
-            log.info("Loaded {} Combat Achievement tasks from cache", taskMap.size());
-            initialized = true;
+        /**
+         * Stop at the next chunk; a superseded load must not keep filling the store.
+         */
+        public void cancel()
+        {
+            cancelled = true;
         }
-        catch (Exception e)
+
+        @Override
+        public boolean runChunk()
         {
-            log.error("Failed to load CA tasks from cache", e);
-            initialized = false;
+            if (cancelled)
+            {
+                return true;
+            }
+
+            if (cached != null)
+            {
+                int end = Math.min(restoreIndex + RESTORE_CHUNK_SIZE, cached.size());
+                for (; restoreIndex < end; restoreIndex++)
+                {
+                    store.add(cached.get(restoreIndex));
+                }
+
+                if (restoreIndex < cached.size())
+                {
+                    return false;
+                }
+
+                log.info("Restored {} Combat Achievement tasks from struct cache", store.size());
+                initialized = true;
+                return true;
+            }
+
+            if (tierIndex >= TIER_ENUM_IDS.length)
+            {
+                log.info("Loaded {} Combat Achievement tasks from cache", store.size());
+                // Snapshot on the client thread; the save runs after this chunk, off it
+                decoded = getAllTasks();
+                initialized = true;
+                return true;
+            }
+
+            int[] structIds = structIdsByTier[tierIndex];
+            if (structIndex < structIds.length)
+            {
+                loadTaskFromStruct(structIds[structIndex++], getDifficultyForTier(tierIndex));
+                return false;
+            }
+
+            // Tier finished - move to the next enum
+            structIndex = 0;
+            tierIndex++;
+            return false;
         }
     }
 
     /**
-     * Load tasks from a specific tier enum.
+     * Read the struct IDs held by a tier enum.
      */
-    private void loadTasksFromEnum(int enumId, RoutingAlgorithm.Difficulty difficulty)
+    private int[] loadStructIds(int enumId)
     {
         try
         {
@@ -114,52 +248,45 @@ public class CombatAchievementService
             if (tierEnum == null)
             {
                 log.warn("Enum {} is null", enumId);
-                return;
+                return new int[0];
             }
 
             int[] structIds = tierEnum.getIntVals();
-            log.info("Loading {} tasks from enum {} ({})", structIds.length, enumId, difficulty);
+            log.debug("Enum {} holds {} tasks", enumId, structIds.length);
+            return structIds;
+        }
+        catch (Exception e)
+        {
+            log.error("Failed to load enum {}", enumId, e);
+            return new int[0];
+        }
+    }
 
-            for (int structId : structIds)
+    /**
+     * Load a single task struct.
+     */
+    private void loadTaskFromStruct(int structId, RoutingAlgorithm.Difficulty difficulty)
+    {
+        try
+        {
+            StructComposition struct = client.getStructComposition(structId);
+            if (struct == null)
             {
-                try
-                {
-                    StructComposition struct = client.getStructComposition(structId);
-                    if (struct == null)
-                    {
-                        log.warn("Struct {} is null", structId);
-                        continue;
-                    }
-
-                    // Extract task data from struct
-                    int taskId = struct.getIntValue(PARAM_TASK_ID);
-                    String name = struct.getStringValue(PARAM_TASK_NAME);
-                    String description = struct.getStringValue(PARAM_TASK_DESCRIPTION);
-
-                    int points = getPointsForDifficulty(difficulty);
-
-                    // Create task object
-                    CombatAchievementTask task = new CombatAchievementTask(
-                            taskId,
-                            name,
-                            description,
-                            difficulty,
-                            points,
-                            structId
-                    );
-
-                    taskMap.put(taskId, task);
-                    taskNameMap.put(name, task);
-                }
-                catch (Exception e)
-                {
-                    log.warn("Failed to load struct {}: {}", structId, e.getMessage());
-                }
+                log.warn("Struct {} is null", structId);
+                return;
             }
+
+            // Extract task data from struct
+            int taskId = struct.getIntValue(PARAM_TASK_ID);
+            String name = struct.getStringValue(PARAM_TASK_NAME);
+            String description = struct.getStringValue(PARAM_TASK_DESCRIPTION);
+            int monsterId = struct.getIntValue(PARAM_TASK_MONSTER);
+
+            store.add(taskId, name, description, difficulty, RoutingAlgorithm.TaskType.MECHANICAL, structId, monsterId);
         }
         catch (Exception e)
         {
-            log.error("Failed to load enum {}", enumId, e);
+            log.warn("Failed to load struct {}: {}", structId, e.getMessage());
         }
     }
 
@@ -199,17 +326,46 @@ public class CombatAchievementService
         }
     }
 
+    /**
+     * Snapshot the player's completion bits, one bit per task ID.
+     */
+    public long[] getCompletionBits()
+    {
+        long[] bits = new long[(VARP_IDS.length * 32 + 63) / 64];
+
+        for (int varpIndex = 0; varpIndex < VARP_IDS.length; varpIndex++)
+        {
+            try
+            {
+                long varpValue = client.getVarpValue(VARP_IDS[varpIndex]) & 0xffffffffL;
+                bits[varpIndex >> 1] |= varpValue << ((varpIndex & 1) * 32);
+            }
+            catch (Exception e)
+            {
+                log.warn("Failed to read completion varp {}: {}", VARP_IDS[varpIndex], e.getMessage());
+            }
+        }
+
+        return bits;
+    }
+
+    public static boolean isBitSet(long[] bits, int taskId)
+    {
+        int word = taskId >> 6;
+        return taskId >= 0 && word < bits.length && (bits[word] & (1L << taskId)) != 0;
+    }
+
     /**
      * Check if a task is complete by name.
      */
     public boolean isTaskComplete(String taskName)
     {
-        CombatAchievementTask task = taskNameMap.get(taskName);
-        if (task == null)
+        int taskId = store.findByName(taskName);
+        if (taskId < 0)
         {
             return false;
         }
-        return isTaskComplete(task.id);
+        return isTaskComplete(taskId);
     }
 
     /**
@@ -224,17 +380,18 @@ public class CombatAchievementService
         }
 
         List<RoutingAlgorithm.CombatAchievement> incomplete = new ArrayList<>();
+        long[] completionBits = getCompletionBits();
 
-        for (CombatAchievementTask task : taskMap.values())
+        for (int taskId : store.ids())
         {
-            if (!isTaskComplete(task.id))
+            if (!isBitSet(completionBits, taskId))
             {
-                incomplete.add(task.toRoutingTask());
+                incomplete.add(toRoutingTask(taskId, false));
             }
         }
 
         log.info("=== getIncompleteTasks() called ===");
-        log.info("Found {} incomplete tasks out of {} total", incomplete.size(), taskMap.size());
+        log.info("Found {} incomplete tasks out of {} total", incomplete.size(), store.size());
 
         if (!incomplete.isEmpty())
         {
@@ -246,14 +403,56 @@ public class CombatAchievementService
         else
         {
             log.warn("getIncompleteTasks returned empty! Initialized={}, TaskMapSize={}, CompletedCount={}",
-                    initialized, taskMap.size(), getCompletedTaskCount());
+                    initialized, store.size(), getCompletedTaskCount());
         }
 
         return incomplete;
     }
 
     /**
-     * Get incomplete tasks grouped by extracted monster name.
+     * Get the boss name for a task from the cache monster enum.
+     * @return null if the task has no known monster
+     */
+    public String getMonsterName(int taskId)
+    {
+        return bossDictionary.getName(store.getBossId(taskId));
+    }
+
+    /**
+     * Build the cache-only routing view of a stored task.
+     */
+    public RoutingAlgorithm.CombatAchievement toRoutingTask(int taskId, boolean completed)
+    {
+        String monsterName = getMonsterName(taskId);
+        if (monsterName == null)
+        {
+            monsterName = CombatAchievementTask.extractMonsterName(store.getName(taskId));
+        }
+
+        return new RoutingAlgorithm.CombatAchievement(
+                taskId,
+                store.getName(taskId),
+                monsterName,
+                bossInterner.intern(monsterName),
+                store.getDifficulty(taskId),
+                store.getType(taskId),
+                0.0,
+                completed,
+                store.getDescription(taskId),
+                Collections.emptyList()
+        );
+    }
+
+    /**
+     * Column store backing this service. Read-only outside the load task.
+     */
+    public TaskStore getStore()
+    {
+        return store;
+    }
+
+    /**
+     * Get incomplete tasks grouped by monster name.
      */
     public Map<String, List<RoutingAlgorithm.CombatAchievement>> getIncompleteTasksByMonster()
     {
@@ -271,8 +470,16 @@ public class CombatAchievementService
             return Collections.emptyList();
         }
 
-        log.warn("getAllTasksForBoss not fully implemented - monster info not in cache structs");
-        return Collections.emptyList();
+        List<RoutingAlgorithm.CombatAchievement> tasks = new ArrayList<>();
+        long[] completionBits = getCompletionBits();
+        for (int taskId : store.ids())
+        {
+            if (monsterName.equalsIgnoreCase(getMonsterName(taskId)))
+            {
+                tasks.add(toRoutingTask(taskId, isBitSet(completionBits, taskId)));
+            }
+        }
+        return tasks;
     }
 
     /**
@@ -286,9 +493,9 @@ public class CombatAchievementService
         }
 
         int count = 0;
-        for (CombatAchievementTask task : taskMap.values())
+        for (int taskId : store.ids())
         {
-            if (isTaskComplete(task.id))
+            if (isTaskComplete(taskId))
             {
                 count++;
             }
@@ -301,7 +508,7 @@ public class CombatAchievementService
      */
     public int getTotalTaskCount()
     {
-        return taskMap.size();
+        return store.size();
     }
 
     /**
@@ -312,11 +519,11 @@ public class CombatAchievementService
         try
         {
             int points = 0;
-            for (CombatAchievementTask task : taskMap.values())
+            for (int taskId : store.ids())
             {
-                if (isTaskComplete(task.id))
+                if (isTaskComplete(taskId))
                 {
-                    points += task.points;
+                    points += store.getPoints(taskId);
                 }
             }
 
@@ -338,11 +545,11 @@ public class CombatAchievementService
     {
         Map<RoutingAlgorithm.Difficulty, Integer> breakdown = new HashMap<>();
 
-        for (CombatAchievementTask task : taskMap.values())
+        for (int taskId : store.ids())
         {
-            if (isTaskComplete(task.id))
+            if (isTaskComplete(taskId))
             {
-                breakdown.merge(task.difficulty, task.points, Integer::sum);
+                breakdown.merge(store.getDifficulty(taskId), store.getPoints(taskId), Integer::sum);
             }
         }
 
@@ -480,8 +687,8 @@ public class CombatAchievementService
      */
     public void reset()
     {
-        taskMap.clear();
-        taskNameMap.clear();
+        store.clear();
+        bossDictionary = BossDictionary.empty();
         initialized = false;
         log.info("CombatAchievementService reset");
     }
@@ -491,7 +698,7 @@ public class CombatAchievementService
      */
     public CombatAchievementTask getTask(int taskId)
     {
-        return taskMap.get(taskId);
+        return store.contains(taskId) ? store.toTask(taskId) : null;
     }
 
     /**
@@ -499,7 +706,12 @@ public class CombatAchievementService
      */
     public Collection<CombatAchievementTask> getAllTasks()
     {
-        return taskMap.values();
+        List<CombatAchievementTask> tasks = new ArrayList<>(store.size());
+        for (int taskId : store.ids())
+        {
+            tasks.add(store.toTask(taskId));
+        }
+        return tasks;
     }
 
     /**
@@ -510,7 +722,7 @@ public class CombatAchievementService
         log.info("=== DEBUG: Tasks containing '{}' ===", bossNamePart);
 
         int matchCount = 0;
-        for (CombatAchievementTask task : taskMap.values())
+        for (CombatAchievementTask task : getAllTasks())
         {
             if (task.name.toLowerCase().contains(bossNamePart.toLowerCase()))
             {
@@ -552,7 +764,7 @@ public class CombatAchievementService
         if (matchCount == 0)
         {
             log.warn("No tasks found! Make sure wiki data is loaded. Try searching for partial names.");
-            log.info("Total tasks in cache: {}", taskMap.size());
+            log.info("Total tasks in cache: {}", store.size());
         }
     }
 
@@ -563,7 +775,7 @@ public class CombatAchievementService
     {
         log.info("=== COMBAT ACHIEVEMENT DEBUG ===");
         log.info("Initialized: {}", initialized);
-        log.info("Total tasks in map: {}", taskMap.size());
+        log.info("Total tasks in store: {}", store.size());
         log.info("Completed tasks: {}", getCompletedTaskCount());
         log.info("Current points: {}", getCurrentTierPoints());
         log.info("Current tier: {}", getCurrentTier());
@@ -579,8 +791,7 @@ public class CombatAchievementService
 
         // Check first 10 tasks
         log.info("=== First 10 Tasks ===");
-        taskMap.values().stream()
-                .sorted(Comparator.comparingInt(t -> t.id))
+        getAllTasks().stream()
                 .limit(10)
                 .forEach(task -> {
                     boolean complete = isTaskComplete(task.id);
@@ -624,24 +835,7 @@ public class CombatAchievementService
     }
 
     /**
-     * Get point value for a difficulty tier.
-     */
-    private int getPointsForDifficulty(RoutingAlgorithm.Difficulty difficulty)
-    {
-        switch (difficulty)
-        {
-            case EASY: return 1;
-            case MEDIUM: return 2;
-            case HARD: return 3;
-            case ELITE: return 4;
-            case MASTER: return 5;
-            case GRANDMASTER: return 6;
-            default: return 1;
-        }
-    }
-
-    /**
-     * Internal task representation.
+     * Task row as persisted in the struct cache.
      * Made public for debugging access.
      */
     public static class CombatAchievementTask
@@ -652,9 +846,10 @@ public class CombatAchievementService
         public final RoutingAlgorithm.Difficulty difficulty;
         public final int points;
         public final int structId;
+        public final int monsterId;
 
         CombatAchievementTask(int id, String name, String description,
-                              RoutingAlgorithm.Difficulty difficulty, int points, int structId)
+                              RoutingAlgorithm.Difficulty difficulty, int points, int structId, int monsterId)
         {
             this.id = id;
             this.name = name;
@@ -662,6 +857,7 @@ public class CombatAchievementService
             this.difficulty = difficulty;
             this.points = points;
             this.structId = structId;
+            this.monsterId = monsterId;
         }
 
         @Override
@@ -671,31 +867,11 @@ public class CombatAchievementService
                     id, name, difficulty, points);
         }
 
-        /**
-         * Convert to RoutingAlgorithm.CombatAchievement.
-         */
-        public RoutingAlgorithm.CombatAchievement toRoutingTask()
-        {
-            // Try to extract monster name from task name
-            String monsterName = extractMonsterName(name);
-
-            return new RoutingAlgorithm.CombatAchievement(
-                    id,
-                    name,
-                    monsterName,
-                    difficulty,
-                    RoutingAlgorithm.TaskType.MECHANICAL,
-                    0.0,
-                    description,
-                    Collections.emptyList()
-            );
-        }
-
         /**
          * extract monster/boss name from task name.
-         * Fall back if wiki is down
+         * Fall back if the struct has no monster and wiki is down
          */
-        private String extractMonsterName(String taskName)
+        static String extractMonsterName(String taskName)
         {
             if (taskName == null || taskName.isEmpty())
             {
@@ -0,0 +1,57 @@
+package com.CAHelper;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Which part of the recommendation pipeline each config key invalidates, so a
+ * change only recomputes what reads it. Each stage includes the ones after it:
+ * new filters mean new recommendations to rank, a new sort mode only re-ranks.
+ */
+public final class ConfigInvalidation
+{
+    public enum Stage
+    {
+        FILTER, // task selection changed: re-filter, rebuild and re-rank
+        SORT,   // same tasks, different order: re-rank the existing recommendations
+        NONE    // read live where it's used, or not a setting at all
+    }
+
+    private static final Map<String, Stage> STAGES = new HashMap<>();
+
+    static
+    {
+        STAGES.put("minDifficulty", Stage.FILTER);
+        STAGES.put("maxDifficulty", Stage.FILTER);
+        STAGES.put("soloContentOnly", Stage.FILTER);
+        STAGES.put("hideWildernessContent", Stage.FILTER);
+
+        STAGES.put("useSmartRouting", Stage.SORT);
+        STAGES.put("travelAwareRouting", Stage.SORT);
+        STAGES.put("routeLength", Stage.SORT);
+
+        // The overlay reads it every frame
+        STAGES.put("showOverlay", Stage.NONE);
+        // The scheduler reads its budget on every tick
+        STAGES.put("clientThreadBudgetMs", Stage.NONE);
+        // Skips are saved here, but the skip toggle already refreshes what it affects
+        STAGES.put(ManualCompletionManager.MANUAL_COMPLETIONS_KEY, Stage.NONE);
+    }
+
+    private ConfigInvalidation()
+    {
+    }
+
+    /**
+     * The stage a change to this key invalidates. Unknown keys invalidate everything.
+     */
+    public static Stage forKey(String key)
+    {
+        return STAGES.getOrDefault(key, Stage.FILTER);
+    }
+
+    static boolean isMapped(String key)
+    {
+        return STAGES.containsKey(key);
+    }
+}
@@ -0,0 +1,175 @@
+package com.CAHelper;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup/reload pipeline: struct load on the client thread, wiki cache load
+ * and (if needed) a wiki fetch on a plugin-owned executor, then one panel
+ * refresh once both sides are ready. Expired cache data and the bundled snapshot
+ * are revalidated afterwards.
+ */
+@Slf4j
+@Singleton
+public class LoadingPipeline
+{
+    @Inject
+    private ClientThreadScheduler scheduler;
+
+    @Inject
+    private CombatAchievementService combatAchievementService;
+
+    @Inject
+    private CombatAchievementEnrichmentService enrichmentService;
+
+    @Inject
+    private BossMetadataService bossMetadataService;
+
+    @Inject
+    private WikiDataLoader wikiDataLoader;
+
+    private ExecutorService executor;
+    private CompletableFuture<?>[] stages = new CompletableFuture<?>[0];
+
+    // The current task load; its client-thread chunks are queued separately from the stages
+    private CombatAchievementService.TaskLoader taskLoader;
+
+    public void startUp()
+    {
+        // Two threads so a cache read never queues behind a slow fetch
+        executor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "CAHelper-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * The plugin-owned executor, for other background work that must stop on shutdown.
+     * Null before startUp and after shutDown.
+     */
+    public ExecutorService getExecutor()
+    {
+        return executor;
+    }
+
+    /**
+     * Run the pipeline, cancelling any load already in progress.
+     * @param onReady runs on the client thread once tasks and wiki data are both ready
+     * @return completes after onReady has run
+     */
+    public synchronized CompletableFuture<Void> start(Runnable onReady)
+    {
+        cancel();
+
+        // Struct decoding is client-thread-only and runs in budgeted chunks; the persisted
+        // table is read and written on the executor, never on the client thread
+        CombatAchievementService.TaskLoader loader = combatAchievementService.createLoadTask();
+        taskLoader = loader;
+        CompletableFuture<Void> fingerprinted = scheduler.submit("Fingerprint CA tasks", loader::fingerprint);
+        CompletableFuture<Void> tableRead = fingerprinted.thenRunAsync(loader::readTableCache, executor);
+        CompletableFuture<Void> structsLoaded = tableRead.thenCompose(ignored -> scheduler.submit("Load CA tasks", loader));
+        CompletableFuture<Void> tableSaved = structsLoaded.thenRunAsync(loader::saveTableCache, executor);
+
+        // Wiki data: cache first (even if expired), then the bundled snapshot, fetch only on a miss. Runs alongside the struct load.
+        CompletableFuture<CombatAchievementEnrichmentService.CacheState> cacheLoaded = CompletableFuture
+                .supplyAsync(enrichmentService::loadFromDisk, executor);
+
+        CompletableFuture<Boolean> wikiLoaded = cacheLoaded
+                .thenCompose(state -> state == CombatAchievementEnrichmentService.CacheState.MISS
+                        ? enrichmentService.fetchFromWiki(executor)
+                        : CompletableFuture.completedFuture(true))
+                .exceptionally(e -> {
+                    log.error("Wiki load failed - continuing with cache-only data", e);
+                    return false;
+                });
+
+        CompletableFuture<Void> pipeline = structsLoaded
+                .thenCombine(wikiLoaded, (ignored, wiki) -> wiki)
+                .thenCompose(wiki -> {
+                    log.info("Loaded {} tasks, wiki data {} - refreshing panel",
+                            combatAchievementService.getTotalTaskCount(), wiki ? "ready" : "unavailable");
+                    return scheduler.submit("Panel refresh", onReady);
+                });
+
+        // Stale-while-revalidate: once the panel shows expired or bundled data, refetch and
+        // refresh again only if the wiki content actually changed
+        CompletableFuture<Void> revalidated = pipeline
+                .thenCombine(cacheLoaded, (ignored, state) -> state)
+                .thenCompose(state -> state == CombatAchievementEnrichmentService.CacheState.STALE
+                        || state == CombatAchievementEnrichmentService.CacheState.BUNDLED
+                        ? enrichmentService.fetchFromWiki(executor)
+                        : CompletableFuture.completedFuture(false))
+                .thenCompose(changed -> changed
+                        ? scheduler.submit("Panel refresh", onReady)
+                        : CompletableFuture.completedFuture(null));
+
+        // Boss pages only sharpen filtering, so they load after the first refresh
+        CompletableFuture<Void> metadataLoaded = pipeline
+                .thenCompose(ignored -> bossMetadataService.refresh())
+                .exceptionally(e -> {
+                    log.warn("Boss metadata load failed - using keyword classification", e);
+                    return false;
+                })
+                .thenCompose(changed -> changed
+                        ? scheduler.submit("Panel refresh", onReady)
+                        : CompletableFuture.completedFuture(null));
+
+        stages = new CompletableFuture<?>[]{fingerprinted, tableRead, structsLoaded, tableSaved, cacheLoaded, wikiLoaded, pipeline, revalidated, metadataLoaded};
+        return pipeline;
+    }
+
+    /**
+     * Cancel the in-flight load, if any. Stages that have not started yet will not run.
+     */
+    public synchronized void cancel()
+    {
+        boolean cancelled = false;
+        for (CompletableFuture<?> stage : stages)
+        {
+            cancelled |= stage.cancel(false);
+        }
+
+        if (taskLoader != null)
+        {
+            taskLoader.cancel();
+            taskLoader = null;
+        }
+
+        if (cancelled)
+        {
+            log.info("Cancelled in-progress load");
+        }
+        stages = new CompletableFuture<?>[0];
+    }
+
+    public synchronized void shutDown()
+    {
+        cancel();
+        wikiDataLoader.shutDown();
+
+        if (executor != null)
+        {
+            // Interrupts a fetch that is still running
+            executor.shutdownNow();
+            try
+            {
+                executor.awaitTermination(1, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+
+        // shutdownNow may have dropped a queued fetch; fail it so nobody attaches to it later
+        enrichmentService.abandonFetch();
+    }
+}
@@ -15,12 +15,13 @@ import java.util.stream.Collectors;
 public class ManualCompletionManager
 {
     private static final String CONFIG_GROUP = "CAHelper";
-    private static final String MANUAL_COMPLETIONS_KEY = "manualCompletions";
+    static final String MANUAL_COMPLETIONS_KEY = "manualCompletions";
 
     @Inject
     private ConfigManager configManager;
 
     private Set<Integer> manuallyCompletedTaskIds = new HashSet<>();
+    private volatile TaskBitmap skipped = TaskBitmap.empty();
 
     public void initialize()
     {
@@ -34,6 +35,7 @@ public class ManualCompletionManager
 
             log.info("Loaded {} manually completed tasks", manuallyCompletedTaskIds.size());
         }
+        updateSkipped();
     }
 
     public boolean isManuallyCompleted(int taskId)
@@ -41,6 +43,14 @@ public class ManualCompletionManager
         return manuallyCompletedTaskIds.contains(taskId);
     }
 
+    /**
+     * Manually completed tasks as a bitmap, for {@link TaskQueryEngine} queries.
+     */
+    public TaskBitmap getSkipped()
+    {
+        return skipped;
+    }
+
     public void toggleManualCompletion(int taskId)
     {
         if (manuallyCompletedTaskIds.contains(taskId))
@@ -57,8 +67,17 @@ public class ManualCompletionManager
         save();
     }
 
+    private void updateSkipped()
+    {
+        TaskBitmap.Builder builder = TaskBitmap.builder(0);
+        manuallyCompletedTaskIds.forEach(builder::set);
+        skipped = builder.build();
+    }
+
     private void save()
     {
+        updateSkipped();
+
         String toSave = manuallyCompletedTaskIds.stream()
                 .map(String::valueOf)
                 .collect(Collectors.joining(","));
@@ -0,0 +1,86 @@
+package com.CAHelper;
+
+import javax.swing.JToolTip;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Insets;
+import java.awt.Toolkit;
+import java.util.Map;
+
+/**
+ * Tooltip that draws its tip text as plain lines split on {@code '\n'}, the first one
+ * in bold. A lightweight stand-in for an {@code <html>} tooltip, which parses an HTML
+ * document every time the text changes. Install it from the owner's
+ * {@code createToolTip()}.
+ */
+public class MultiLineToolTip extends JToolTip
+{
+    private static final int PADDING = 3;
+
+    private String[] lines()
+    {
+        String text = getTipText();
+        return text != null ? text.split("\n") : new String[0];
+    }
+
+    private Font headingFont()
+    {
+        return getFont().deriveFont(Font.BOLD);
+    }
+
+    @Override
+    public Dimension getPreferredSize()
+    {
+        String[] lines = lines();
+        FontMetrics fm = getFontMetrics(getFont());
+        FontMetrics heading = getFontMetrics(headingFont());
+
+        int width = 0;
+        for (int i = 0; i < lines.length; i++)
+        {
+            width = Math.max(width, (i == 0 ? heading : fm).stringWidth(lines[i]));
+        }
+
+        Insets insets = getInsets();
+        return new Dimension(width + 2 * PADDING + insets.left + insets.right,
+                lines.length * fm.getHeight() + 2 * PADDING + insets.top + insets.bottom);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g)
+    {
+        Graphics2D g2 = (Graphics2D) g.create();
+        try
+        {
+            g2.setColor(getBackground());
+            g2.fillRect(0, 0, getWidth(), getHeight());
+
+            // Same text rendering as a JLabel
+            Map<?, ?> desktopHints = (Map<?, ?>) Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+            if (desktopHints != null)
+            {
+                g2.addRenderingHints(desktopHints);
+            }
+            g2.setColor(getForeground());
+
+            Insets insets = getInsets();
+            FontMetrics fm = getFontMetrics(getFont());
+            int x = insets.left + PADDING;
+            int y = insets.top + PADDING + fm.getAscent();
+            String[] lines = lines();
+            for (int i = 0; i < lines.length; i++)
+            {
+                g2.setFont(i == 0 ? headingFont() : getFont());
+                g2.drawString(lines[i], x, y);
+                y += fm.getHeight();
+            }
+        }
+        finally
+        {
+            g2.dispose();
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.CAHelper;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the cheapest set of incomplete tasks that reaches the next tier threshold.
+ * A task weighs its point value and costs more the rarer it is on the wiki.
+ * <p>
+ * Tasks only come in six point values, and an optimal set always takes the cheapest
+ * tasks of each value, so the exact minimum-cost cover is a DP over (point value,
+ * points still needed) choosing how many of each value to take. Completions found
+ * between calls only recompute the DP rows from that task's point value onwards.
+ * Client thread only.
+ */
+@Slf4j
+@Singleton
+public class PointPlanner
+{
+    private static final RoutingAlgorithm.Difficulty[] DIFFICULTIES = RoutingAlgorithm.Difficulty.values();
+    private static final int GROUPS = DIFFICULTIES.length;
+
+    // Completion % assumed when the wiki has none; rarer than any listed task
+    private static final double UNKNOWN_COMPLETION_RATE = 0.01;
+
+    @Inject
+    private CombatAchievementService combatAchievementService;
+
+    @Inject
+    private CombatAchievementEnrichmentService enrichmentService;
+
+    // What the tables were built from
+    private long wikiVersion = -1;
+    private int taskCount = -1;
+    private long[] seenBits = new long[0];
+
+    // Incomplete task IDs per difficulty, cheapest first: groups[g][0 .. groupSize[g])
+    private final int[][] groups = new int[GROUPS][];
+    private final int[] groupSize = new int[GROUPS];
+    private final double[][] prefixCost = new double[GROUPS][];
+    private double[] costById = new double[0];
+
+    // best[g][r]: cheapest way to earn r points from difficulties 0..g; choice[g][r]: tasks taken from g
+    private double[][] best = new double[GROUPS][0];
+    private int[][] choice = new int[GROUPS][0];
+    private int capacity = -1;
+
+    public PointPlanner()
+    {
+    }
+
+    PointPlanner(CombatAchievementService combatAchievementService, CombatAchievementEnrichmentService enrichmentService)
+    {
+        this.combatAchievementService = combatAchievementService;
+        this.enrichmentService = enrichmentService;
+    }
+
+    @Value
+    public static class Plan
+    {
+        String tierName;
+        int pointsNeeded;
+        int pointsPlanned;
+        double cost;
+        List<Integer> taskIds; // cheapest first within each difficulty
+
+        public boolean isReachable()
+        {
+            return pointsPlanned >= pointsNeeded;
+        }
+    }
+
+    /**
+     * Plan the cheapest route to the next tier from the player's current completions.
+     */
+    public Plan plan()
+    {
+        String tierName = combatAchievementService.getNextTierName();
+        int needed = combatAchievementService.getPointsToNextTier();
+
+        if (!combatAchievementService.isInitialized() || needed <= 0)
+        {
+            return new Plan(tierName, Math.max(0, needed), 0, 0, Collections.emptyList());
+        }
+
+        sync(needed);
+
+        List<Integer> taskIds = new ArrayList<>();
+        int planned = 0;
+
+        if (best[GROUPS - 1][needed] != Double.POSITIVE_INFINITY)
+        {
+            int remaining = needed;
+            for (int g = GROUPS - 1; g >= 0; g--)
+            {
+                int take = choice[g][remaining];
+                int points = DIFFICULTIES[g].getPoints();
+                for (int k = 0; k < take; k++)
+                {
+                    taskIds.add(groups[g][k]);
+                }
+                planned += take * points;
+                remaining = Math.max(0, remaining - take * points);
+            }
+        }
+        else
+        {
+            log.debug("Not enough incomplete tasks to reach {}", tierName);
+        }
+
+        return new Plan(tierName, needed, planned, best[GROUPS - 1][needed], taskIds);
+    }
+
+    /**
+     * Bring the tables up to date, rebuilding only what changed since the last call.
+     */
+    private void sync(int needed)
+    {
+        TaskStore store = combatAchievementService.getStore();
+        long version = enrichmentService.getSnapshot().getVersion();
+        long[] bits = combatAchievementService.getCompletionBits();
+
+        if (version != wikiVersion || store.size() != taskCount)
+        {
+            rebuild(store, bits);
+            wikiVersion = version;
+            taskCount = store.size();
+            recompute(0, needed);
+            return;
+        }
+
+        int firstDirty = GROUPS;
+        for (int word = 0; word < bits.length; word++)
+        {
+            long seen = word < seenBits.length ? seenBits[word] : 0;
+            long changed = bits[word] ^ seen;
+
+            while (changed != 0)
+            {
+                int bit = Long.numberOfTrailingZeros(changed);
+                changed &= changed - 1;
+
+                int taskId = (word << 6) + bit;
+                if (!store.contains(taskId))
+                {
+                    continue;
+                }
+
+                int g = store.getDifficultyOrdinal(taskId);
+                if ((bits[word] & (1L << bit)) != 0)
+                {
+                    remove(g, taskId);
+                }
+                else
+                {
+                    insert(g, taskId);
+                }
+                firstDirty = Math.min(firstDirty, g);
+            }
+        }
+        seenBits = bits;
+
+        if (needed > capacity)
+        {
+            recompute(0, needed);
+        }
+        else if (firstDirty < GROUPS)
+        {
+            recompute(firstDirty, capacity);
+        }
+    }
+
+    private void rebuild(TaskStore store, long[] bits)
+    {
+        costById = new double[store.capacity()];
+        WikiAttributeStore wiki = enrichmentService.getSnapshot().getStore();
+
+        for (int g = 0; g < GROUPS; g++)
+        {
+            groups[g] = new int[store.size()];
+            groupSize[g] = 0;
+        }
+
+        for (int taskId : store.ids())
+        {
+            costById[taskId] = cost(wiki.getCompletionRate(taskId));
+            if (!CombatAchievementService.isBitSet(bits, taskId))
+            {
+                int g = store.getDifficultyOrdinal(taskId);
+                groups[g][groupSize[g]++] = taskId;
+            }
+        }
+
+        for (int g = 0; g < GROUPS; g++)
+        {
+            int[] sorted = Arrays.stream(groups[g], 0, groupSize[g])
+                    .boxed()
+                    .sorted((a, b) -> Double.compare(costById[a], costById[b]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            System.arraycopy(sorted, 0, groups[g], 0, sorted.length);
+            updatePrefix(g);
+        }
+
+        seenBits = bits;
+        log.debug("Point planner rebuilt for {} tasks", store.size());
+    }
+
+    /**
+     * A flat cost per task plus the surprisal of the completion rate, so common tasks are
+     * cheap and fewer tasks win between equally common options.
+     */
+    static double cost(float completionRate)
+    {
+        double rate = Float.isNaN(completionRate) || completionRate <= 0 ? UNKNOWN_COMPLETION_RATE : Math.min(100.0, completionRate);
+        return 1.0 - Math.log(rate / 100.0);
+    }
+
+    private void remove(int g, int taskId)
+    {
+        int[] group = groups[g];
+        for (int i = 0; i < groupSize[g]; i++)
+        {
+            if (group[i] == taskId)
+            {
+                System.arraycopy(group, i + 1, group, i, groupSize[g] - i - 1);
+                groupSize[g]--;
+                updatePrefix(g);
+                return;
+            }
+        }
+    }
+
+    private void insert(int g, int taskId)
+    {
+        int[] group = groups[g];
+        if (groupSize[g] == group.length)
+        {
+            group = groups[g] = Arrays.copyOf(group, Math.max(8, group.length * 2));
+        }
+
+        // Keep the group sorted by cost
+        int at = groupSize[g];
+        while (at > 0 && costById[group[at - 1]] > costById[taskId])
+        {
+            group[at] = group[at - 1];
+            at--;
+        }
+        group[at] = taskId;
+        groupSize[g]++;
+        updatePrefix(g);
+    }
+
+    private void updatePrefix(int g)
+    {
+        double[] prefix = new double[groupSize[g] + 1];
+        for (int k = 0; k < groupSize[g]; k++)
+        {
+            prefix[k + 1] = prefix[k] + costById[groups[g][k]];
+        }
+        prefixCost[g] = prefix;
+    }
+
+    /**
+     * Recompute DP rows firstGroup.. for every target up to newCapacity.
+     */
+    private void recompute(int firstGroup, int newCapacity)
+    {
+        if (newCapacity != capacity)
+        {
+            best = new double[GROUPS][newCapacity + 1];
+            choice = new int[GROUPS][newCapacity + 1];
+            capacity = newCapacity;
+            firstGroup = 0;
+        }
+
+        long start = System.nanoTime();
+
+        for (int g = firstGroup; g < GROUPS; g++)
+        {
+            int points = DIFFICULTIES[g].getPoints();
+            double[] prefix = prefixCost[g];
+            double[] row = best[g];
+            double[] previous = g > 0 ? best[g - 1] : null;
+
+            for (int r = 0; r <= capacity; r++)
+            {
+                // Taking more than ceil(r / points) of one value only adds cost
+                int maxTake = Math.min(groupSize[g], (r + points - 1) / points);
+                double bestCost = Double.POSITIVE_INFINITY;
+                int bestTake = 0;
+
+                for (int take = 0; take <= maxTake; take++)
+                {
+                    int rest = Math.max(0, r - take * points);
+                    double restCost = previous != null ? previous[rest] : (rest == 0 ? 0 : Double.POSITIVE_INFINITY);
+                    double total = prefix[take] + restCost;
+                    if (total < bestCost)
+                    {
+                        bestCost = total;
+                        bestTake = take;
+                    }
+                }
+
+                row[r] = bestCost;
+                choice[g][r] = bestTake;
+            }
+        }
+
+        log.debug("Point planner recomputed difficulties {}+ up to {} points in {}us",
+                DIFFICULTIES[firstGroup], capacity, (System.nanoTime() - start) / 1000);
+    }
+
+    /**
+     * Drop all tables; the next plan rebuilds them.
+     */
+    public void reset()
+    {
+        wikiVersion = -1;
+        taskCount = -1;
+        capacity = -1;
+        seenBits = new long[0];
+    }
+}
@@ -11,13 +11,38 @@ import java.util.stream.Collectors;
 @Singleton
 public class RoutingAlgorithm
 {
-    private final CombatAchievementEnrichmentService enrichmentService;
+    private final BossInterner bossInterner;
+    private final TaskQueryEngine taskQuery;
+    private final TravelRouter travelRouter;
     private CAHelperConfig config;
 
+    // Ties fall back to boss ID so every boss has exactly one place in the ranking
+    private static final Comparator<BossRecommendation> SMART_ORDER = Comparator
+            .comparingDouble(BossRecommendation::getCompletionPercentage)
+            .reversed()
+            .thenComparingInt(BossRecommendation::getBossId);
+    private static final Comparator<BossRecommendation> SIMPLE_ORDER = Comparator
+            .comparingInt(BossRecommendation::getMinIncompleteDifficulty)
+            .thenComparing(BossRecommendation::getBossName)
+            .thenComparingInt(BossRecommendation::getBossId);
+
+    private final BossQueue bossQueue = new BossQueue(SMART_ORDER);
+    private long recommendationVersion = 0;
+
+    // What the queued recommendations were built from
+    private long builtIndexVersion = -1;
+    private TaskBitmap builtSelection = TaskBitmap.empty();
+    private TaskBitmap builtComplete = TaskBitmap.empty();
+
+    // The last ranking's recommendations by boss ID, for readers off the client thread
+    private volatile Map<Integer, BossRecommendation> published = Collections.emptyMap();
+
     @Inject
-    public RoutingAlgorithm(CombatAchievementEnrichmentService enrichmentService)
+    public RoutingAlgorithm(BossInterner bossInterner, TaskQueryEngine taskQuery, TravelRouter travelRouter)
     {
-        this.enrichmentService = enrichmentService;
+        this.bossInterner = bossInterner;
+        this.taskQuery = taskQuery;
+        this.travelRouter = travelRouter;
     }
 
     public void setConfig(CAHelperConfig config)
@@ -75,9 +100,11 @@ public class RoutingAlgorithm
         int id;
         String name;
         String monster;
+        int bossId;
         Difficulty difficulty;
         TaskType type;
-        double completionRate;
+        double completionRate; // wiki global completion %, 0 when unknown
+        boolean completed;     // player has completed the task
         String description;
         List<Integer> prerequisiteIds;
 
@@ -112,117 +139,266 @@ public class RoutingAlgorithm
     @lombok.Value
     public static class BossRecommendation
     {
+        int bossId;
         String bossName;
         int completedCount;
         int totalCount;
+        int pointsRemaining;
         double completionPercentage;
+        int minIncompleteDifficulty; // Difficulty ordinal of the easiest unlocked task, BossAggregates.NO_INCOMPLETE when none
         List<CombatAchievement> availableTasks;
+        Map<Integer, String> lockedBy; // incomplete task ID -> the incomplete prerequisites it waits on
+        long version;                // changes whenever this boss's tasks or their completion change
+
+        /**
+         * Whether the task is still waiting on an incomplete prerequisite.
+         */
+        public boolean isLocked(CombatAchievement task)
+        {
+            return lockedBy.containsKey(task.getId());
+        }
     }
 
     /**
      * Get boss recommendations.
      * Sorting: "Low-Hanging Fruit" - recommends bosses with easiest incomplete tasks
      * or simple difficulty sorting if smart routing is disabled.
+     * <p>
+     * If neither the selection nor the task index changed since the last refresh, only
+     * bosses with a task whose completion flipped are rebuilt and moved in the queue.
      */
     public List<BossRecommendation> getRecommendations(int limit)
     {
         log.info("=== getRecommendations() called ===");
 
-        List<CombatAchievement> allTasks = enrichmentService.getAllEnrichedTasks();
-        log.info("Got {} total enriched tasks", allTasks.size());
+        TaskBitmap selected = select();
+        long indexVersion = taskQuery.version();
+        TaskBitmap complete = taskQuery.complete();
+
+        applySortMode();
+        if (bossQueue.size() > 0 && indexVersion == builtIndexVersion && selected.equals(builtSelection))
+        {
+            // Unmasked: a prerequisite hidden by the filters still unlocks tasks that are shown
+            updateChangedBosses(selected, complete.xor(builtComplete));
+        }
+        else if (!rebuildAll(selected, indexVersion, complete))
+        {
+            published = Collections.emptyMap();
+            return Collections.emptyList();
+        }
+
+        builtIndexVersion = indexVersion;
+        builtSelection = selected;
+        builtComplete = complete;
+        return rank(limit);
+    }
+
+    /**
+     * The tasks the current filters let through.
+     */
+    private TaskBitmap select()
+    {
+        // Every filter is a bitmap, so the tasks are only materialised once
+        TaskBitmap selected = taskQuery.all();
+        log.info("Got {} total tasks", selected.cardinality());
 
         // Apply all filters
         if (config != null)
         {
-            allTasks = filterByDifficulty(allTasks);
-            log.info("After difficulty filtering: {} tasks", allTasks.size());
+            selected = selected.and(taskQuery.difficultyBetween(
+                    convertConfigDifficulty(config.minDifficulty()), convertConfigDifficulty(config.maxDifficulty())));
+            log.info("After difficulty filtering: {} tasks", selected.cardinality());
 
             if (config.soloContentOnly())
             {
-                allTasks = filterSoloContent(allTasks);
-                log.info("After solo content filtering: {} tasks", allTasks.size());
+                selected = selected.andNot(taskQuery.group());
+                log.info("After solo content filtering: {} tasks", selected.cardinality());
             }
 
             if (config.hideWildernessContent())
             {
-                allTasks = filterWildernessContent(allTasks);
-                log.info("After wilderness filtering: {} tasks", allTasks.size());
+                selected = selected.andNot(taskQuery.wilderness());
+                log.info("After wilderness filtering: {} tasks", selected.cardinality());
             }
         }
+        return selected;
+    }
+
+    /**
+     * Rebuild every boss's recommendation from the selection, keeping those whose tasks
+     * and completions are the same as when they were built.
+     * @return false if the selection is empty
+     */
+    private boolean rebuildAll(TaskBitmap selected, long indexVersion, TaskBitmap complete)
+    {
+        List<CombatAchievement> allTasks = taskQuery.tasks(selected);
 
         if (allTasks.isEmpty())
         {
             log.info("No tasks found after filtering");
-            return Collections.emptyList();
+            bossQueue.clear();
+            return false;
         }
 
-        // Group by boss
-        Map<String, List<CombatAchievement>> tasksByBoss = allTasks.stream()
-                .collect(Collectors.groupingBy(CombatAchievement::getMonster));
+        // Locked tasks still count towards a boss, they just can't be picked as the next thing to do
+        TaskBitmap locked = taskQuery.locked().andNot(taskQuery.complete()).and(selected);
+        Map<Integer, String> waitingOn = describeLocks(allTasks, locked);
+        log.info("{} selected tasks locked behind prerequisites", locked.cardinality());
+
+        // Group by boss - counting pass over dense boss IDs
+        BossAggregates aggregates = BossAggregates.build(allTasks, locked);
+
+        log.info("Grouped into {} bosses", aggregates.getBossCount());
 
-        log.info("Grouped into {} bosses", tasksByBoss.size());
+        // Queued recommendations were built from builtSelection and builtComplete; a new index means new task text
+        boolean sameIndex = indexVersion == builtIndexVersion;
+        TaskBitmap changed = complete.xor(builtComplete);
 
         // Create recommendations
-        List<BossRecommendation> recommendations = new ArrayList<>();
+        List<BossRecommendation> recommendations = new ArrayList<>(aggregates.getBossCount());
 
-        for (Map.Entry<String, List<CombatAchievement>> entry : tasksByBoss.entrySet())
+        for (int bossId : aggregates.getBossIds())
         {
-            String bossName = entry.getKey();
-            List<CombatAchievement> tasks = entry.getValue();
+            // Same tasks in the same state - keep the old recommendation and its version
+            BossRecommendation previous = bossQueue.get(bossId);
+            TaskBitmap bossTasks = taskQuery.boss(bossId);
+            if (previous != null && sameIndex
+                    && changed.and(bossTasks).isEmpty()
+                    && selected.and(bossTasks).equals(builtSelection.and(bossTasks)))
+            {
+                recommendations.add(previous);
+                continue;
+            }
 
-            int totalTasks = tasks.size();
-            int completedTasks = (int) tasks.stream()
-                    .filter(t -> t.getCompletionRate() >= 100)
-                    .count();
+            recommendations.add(recommend(bossId, aggregates, locked, waitingOn));
+        }
+
+        // Rank through the boss queue; only bosses whose recommendation changed move
+        bossQueue.sync(recommendations);
+        return true;
+    }
+
+    /**
+     * Rebuild just the bosses owning a changed task, selected or not, and move them in the queue.
+     */
+    private void updateChangedBosses(TaskBitmap selected, TaskBitmap changed)
+    {
+        if (changed.isEmpty())
+        {
+            log.info("No completions changed - keeping {} recommendations", bossQueue.size());
+            return;
+        }
 
-            List<CombatAchievement> incompleteTasks = tasks.stream()
-                    .filter(t -> t.getCompletionRate() < 100)
-                    .collect(Collectors.toList());
+        // Prerequisites are kill-count ladders of one boss, so a completion can't lock or unlock another boss's tasks
+        Set<Integer> bossIds = new TreeSet<>();
+        for (CombatAchievement task : taskQuery.tasks(changed))
+        {
+            if (task.getBossId() >= 0)
+            {
+                bossIds.add(task.getBossId());
+            }
+        }
 
-            double score;
-            if (incompleteTasks.isEmpty())
+        TaskBitmap locked = taskQuery.locked().andNot(taskQuery.complete()).and(selected);
+        for (int bossId : bossIds)
+        {
+            List<CombatAchievement> tasks = taskQuery.tasks(selected.and(taskQuery.boss(bossId)));
+            if (tasks.isEmpty())
             {
-                score = -1.0; // Fully complete - sort to bottom
+                continue; // every task of this boss is filtered out, so it isn't queued
             }
-            else
+            bossQueue.update(recommend(bossId, BossAggregates.build(tasks, locked), locked, describeLocks(tasks, locked)));
+        }
+        log.info("{} completions changed - rebuilt {} of {} bosses", changed.cardinality(), bossIds.size(), bossQueue.size());
+    }
+
+    private BossRecommendation recommend(int bossId, BossAggregates aggregates, TaskBitmap locked, Map<Integer, String> waitingOn)
+    {
+        List<CombatAchievement> tasks = aggregates.getTasks(bossId);
+
+        double score;
+        if (aggregates.getIncomplete(bossId) == 0)
+        {
+            score = -1.0; // Fully complete - sort to bottom
+        }
+        else
+        {
+            score = calculateLowHangingFruitScore(tasks, locked);
+        }
+
+        Map<Integer, String> lockedBy = new HashMap<>();
+        for (CombatAchievement task : tasks)
+        {
+            if (locked.get(task.getId()))
             {
-                score = calculateLowHangingFruitScore(incompleteTasks);
+                lockedBy.put(task.getId(), waitingOn.get(task.getId()));
             }
+        }
 
-            recommendations.add(new BossRecommendation(
-                    bossName,
-                    completedTasks,
-                    totalTasks,
-                    score,
-                    tasks
-            ));
+        return new BossRecommendation(
+                bossId,
+                bossInterner.getName(bossId),
+                aggregates.getCompleted(bossId),
+                aggregates.getTotal(bossId),
+                aggregates.getPointsRemaining(bossId),
+                score,
+                aggregates.getMinIncompleteDifficulty(bossId),
+                tasks,
+                Collections.unmodifiableMap(lockedBy),
+                ++recommendationVersion
+        );
+    }
+
+    /**
+     * Re-rank the last refresh's recommendations under the current sort settings
+     * without re-filtering or rebuilding them. Falls back to a full refresh if
+     * there's nothing to re-rank yet.
+     */
+    public List<BossRecommendation> getRerankedRecommendations(int limit)
+    {
+        if (bossQueue.size() == 0)
+        {
+            return getRecommendations(limit);
         }
 
-        // Sort based on config
+        log.info("=== getRerankedRecommendations() called ===");
+        applySortMode();
+        return rank(limit);
+    }
+
+    private void applySortMode()
+    {
         if (config != null && config.useSmartRouting())
         {
             // Smart routing - low-hanging fruit first
-            recommendations.sort(Comparator
-                    .comparingDouble(BossRecommendation::getCompletionPercentage)
-                    .reversed());
-
+            bossQueue.setOrder(SMART_ORDER);
             log.info("Using SMART routing (low-hanging fruit)");
         }
         else
         {
-            // Simple mode - sort by easiest difficulty
-            recommendations.sort(Comparator
-                    .comparing((BossRecommendation r) -> {
-                        return r.getAvailableTasks().stream()
-                                .filter(t -> t.getCompletionRate() < 100)
-                                .map(CombatAchievement::getDifficulty)
-                                .min(Comparator.naturalOrder())
-                                .orElse(Difficulty.GRANDMASTER);
-                    })
-                    .thenComparing(BossRecommendation::getBossName));
-
+            // Simple mode - sort by easiest incomplete difficulty
+            bossQueue.setOrder(SIMPLE_ORDER);
             log.info("Using SIMPLE routing (difficulty only)");
         }
+    }
+
+    private List<BossRecommendation> rank(int limit)
+    {
+        List<BossRecommendation> recommendations = bossQueue.toRankedList();
+
+        Map<Integer, BossRecommendation> byBoss = new HashMap<>();
+        for (BossRecommendation rec : recommendations)
+        {
+            byBoss.put(rec.getBossId(), rec);
+        }
+        published = Collections.unmodifiableMap(byBoss);
+
+        if (config != null && config.travelAwareRouting())
+        {
+            // Only bosses with an unlocked task left to do are worth travelling to
+            int active = (int) recommendations.stream().filter(r -> r.getMinIncompleteDifficulty() != BossAggregates.NO_INCOMPLETE).count();
+            recommendations = travelRouter.applyRoute(recommendations, Math.min(config.routeLength(), active));
+        }
 
         log.info("=== Top 10 Recommendations ===");
         recommendations.stream()
@@ -250,23 +426,83 @@ public class RoutingAlgorithm
     }
 
     /**
-     * Score based on easiest 1-3 incomplete tasks.
-     * Promotes "do easy tasks across many bosses" strategy.
+     * Best-ranked boss from the last refresh, or null before the first. O(1).
      */
-    private double calculateLowHangingFruitScore(List<CombatAchievement> incompleteTasks)
+    public BossRecommendation getTopRecommendation()
     {
-        if (incompleteTasks.isEmpty())
+        return bossQueue.peek();
+    }
+
+    /**
+     * The boss's recommendation from the last refresh, or null if the filters hid it.
+     * Reads a published snapshot, so it is safe from the Swing thread.
+     */
+    public BossRecommendation getRecommendation(int bossId)
+    {
+        return published.get(bossId);
+    }
+
+    /**
+     * For each locked task, the names of its incomplete prerequisites. Prerequisites
+     * outside the selection (e.g. below the minimum difficulty) are looked up by ID.
+     */
+    private Map<Integer, String> describeLocks(List<CombatAchievement> allTasks, TaskBitmap locked)
+    {
+        TaskBitmap incomplete = taskQuery.incomplete();
+        TaskBitmap.Builder wanted = TaskBitmap.builder(0);
+        for (CombatAchievement task : allTasks)
         {
-            return 0.0;
+            if (locked.get(task.getId()))
+            {
+                for (int prereq : task.getPrerequisiteIds())
+                {
+                    if (incomplete.get(prereq))
+                    {
+                        wanted.set(prereq);
+                    }
+                }
+            }
+        }
+
+        Map<Integer, String> names = new HashMap<>();
+        for (CombatAchievement prereq : taskQuery.tasks(wanted.build()))
+        {
+            names.put(prereq.getId(), prereq.getName());
+        }
+
+        Map<Integer, String> lockedBy = new HashMap<>();
+        for (CombatAchievement task : allTasks)
+        {
+            if (locked.get(task.getId()))
+            {
+                lockedBy.put(task.getId(), task.getPrerequisiteIds().stream()
+                        .filter(names::containsKey)
+                        .map(names::get)
+                        .collect(Collectors.joining(", ")));
+            }
         }
+        return lockedBy;
+    }
 
-        // Sort by difficulty, then completion %
-        List<CombatAchievement> sorted = incompleteTasks.stream()
+    /**
+     * Score based on easiest 1-3 unlocked incomplete tasks.
+     * Promotes "do easy tasks across many bosses" strategy.
+     */
+    private double calculateLowHangingFruitScore(List<CombatAchievement> bossTasks, TaskBitmap locked)
+    {
+        // Sort incomplete tasks by difficulty, then completion %
+        List<CombatAchievement> sorted = bossTasks.stream()
+                .filter(t -> !t.isCompleted() && !locked.get(t.getId()))
                 .sorted(Comparator
                         .comparingInt((CombatAchievement t) -> t.getDifficulty().ordinal())
                         .thenComparing(Comparator.comparingDouble(CombatAchievement::getCompletionRate).reversed()))
                 .collect(Collectors.toList());
 
+        if (sorted.isEmpty())
+        {
+            return 0.0;
+        }
+
         // Take easiest 1-3 tasks
         int numTasksToConsider = Math.min(3, sorted.size());
         List<CombatAchievement> easiestTasks = sorted.subList(0, numTasksToConsider);
@@ -300,120 +536,6 @@ public class RoutingAlgorithm
         }
     }
 
-    private List<CombatAchievement> filterByDifficulty(List<CombatAchievement> tasks)
-    {
-        CAHelperConfig.Difficulty minDiff = config.minDifficulty();
-        CAHelperConfig.Difficulty maxDiff = config.maxDifficulty();
-
-        return tasks.stream()
-                .filter(task -> {
-                    Difficulty taskDiff = task.getDifficulty();
-                    int taskOrdinal = taskDiff.ordinal();
-                    int minOrdinal = convertConfigDifficulty(minDiff).ordinal();
-                    int maxOrdinal = convertConfigDifficulty(maxDiff).ordinal();
-
-                    return taskOrdinal >= minOrdinal && taskOrdinal <= maxOrdinal;
-                })
-                .collect(Collectors.toList());
-    }
-
-    private List<CombatAchievement> filterSoloContent(List<CombatAchievement> tasks)
-    {
-        List<CombatAchievement> soloTasks = tasks.stream()
-                .filter(task -> !isGroupContent(task))
-                .collect(Collectors.toList());
-
-        int filtered = tasks.size() - soloTasks.size();
-        log.info("Filtered {} group tasks, {} solo remaining", filtered, soloTasks.size());
-
-        return soloTasks;
-    }
-
-    private List<CombatAchievement> filterWildernessContent(List<CombatAchievement> tasks)
-    {
-        List<CombatAchievement> safeTasks = tasks.stream()
-                .filter(task -> !isWildernessContent(task))
-                .collect(Collectors.toList());
-
-        int filtered = tasks.size() - safeTasks.size();
-        log.info("Filtered {} wilderness tasks, {} safe remaining", filtered, safeTasks.size());
-
-        return safeTasks;
-    }
-
-    private boolean isGroupContent(CombatAchievement task)
-    {
-        if (task.getType() == TaskType.GROUPSIZE)
-        {
-            return true;
-        }
-
-        String name = task.getName().toLowerCase();
-        String description = task.getDescription() != null ? task.getDescription().toLowerCase() : "";
-
-        String[] namePatterns = {
-                "duo", "trio", "4-scale", "5-scale", "6-scale", "7-scale", "8-scale",
-                "4-man", "5-man", "4man", "5man", "team of", "group of", "party of"
-        };
-
-        for (String pattern : namePatterns)
-        {
-            if (name.contains(pattern))
-            {
-                return true;
-            }
-        }
-
-        String[] descPatterns = {
-                "in a group of", "in a team of", "in a party of", "with a team of",
-                "with a group of", "with a party of", "as a team", "as a group",
-                "in a duo", "in a trio", "with at least 2", "with at least 3",
-                "with at least 4", "with at least 5", "with 2 or more",
-                "with 3 or more", "with 4 or more", "with 5 or more",
-                "alongside", "other players"
-        };
-
-        for (String pattern : descPatterns)
-        {
-            if (description.contains(pattern))
-            {
-                return true;
-            }
-        }
-
-        // Exception: explicit solo
-        if (name.contains("solo") || description.contains("solo"))
-        {
-            return false;
-        }
-
-        return false;
-    }
-
-    private boolean isWildernessContent(CombatAchievement task)
-    {
-        String name = task.getName().toLowerCase();
-        String monster = task.getMonster().toLowerCase();
-        String desc = task.getDescription() != null ? task.getDescription().toLowerCase() : "";
-
-        String[] wildyIndicators = {
-                "wilderness", "wildy", "callisto", "venenatis", "vet'ion", "vetion",
-                "artio", "spindel", "calvar'ion", "calvarion", "scorpia",
-                "chaos elemental", "crazy archaeologist", "chaos fanatic",
-                "king black dragon", "kbd", "revenant", "lava dragon"
-        };
-
-        for (String indicator : wildyIndicators)
-        {
-            if (name.contains(indicator) || monster.contains(indicator) || desc.contains(indicator))
-            {
-                return true;
-            }
-        }
-
-        return false;
-    }
-
     private Difficulty convertConfigDifficulty(CAHelperConfig.Difficulty configDiff)
     {
         switch (configDiff)
@@ -0,0 +1,211 @@
+package com.CAHelper;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable set of task IDs, one bit per ID in 64-bit words. Combining sets is
+ * a word-by-word AND/OR/ANDNOT, so any filter combination costs a few dozen
+ * word operations regardless of how many conditions it has.
+ */
+public final class TaskBitmap
+{
+    private static final TaskBitmap EMPTY = new TaskBitmap(new long[0]);
+
+    private final long[] words;
+
+    private TaskBitmap(long[] words)
+    {
+        this.words = words;
+    }
+
+    public static TaskBitmap empty()
+    {
+        return EMPTY;
+    }
+
+    /**
+     * Copy of the given words, e.g. a completion bitset.
+     */
+    public static TaskBitmap of(long[] words)
+    {
+        return new TaskBitmap(words.clone());
+    }
+
+    public static Builder builder(int capacity)
+    {
+        return new Builder(capacity);
+    }
+
+    public static final class Builder
+    {
+        private long[] words;
+
+        private Builder(int capacity)
+        {
+            words = new long[(capacity + 63) >> 6];
+        }
+
+        public Builder set(int taskId)
+        {
+            if (taskId < 0)
+            {
+                return this;
+            }
+
+            int word = taskId >> 6;
+            if (word >= words.length)
+            {
+                words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+            }
+            words[word] |= 1L << taskId;
+            return this;
+        }
+
+        public TaskBitmap build()
+        {
+            TaskBitmap bitmap = new TaskBitmap(words);
+            words = null; // built bitmaps never change
+            return bitmap;
+        }
+    }
+
+    public TaskBitmap and(TaskBitmap other)
+    {
+        int n = Math.min(words.length, other.words.length);
+        long[] result = new long[n];
+        for (int i = 0; i < n; i++)
+        {
+            result[i] = words[i] & other.words[i];
+        }
+        return new TaskBitmap(result);
+    }
+
+    public TaskBitmap or(TaskBitmap other)
+    {
+        long[] longer = words.length >= other.words.length ? words : other.words;
+        long[] shorter = longer == words ? other.words : words;
+        long[] result = longer.clone();
+        for (int i = 0; i < shorter.length; i++)
+        {
+            result[i] |= shorter[i];
+        }
+        return new TaskBitmap(result);
+    }
+
+    public TaskBitmap andNot(TaskBitmap other)
+    {
+        long[] result = words.clone();
+        int n = Math.min(words.length, other.words.length);
+        for (int i = 0; i < n; i++)
+        {
+            result[i] &= ~other.words[i];
+        }
+        return new TaskBitmap(result);
+    }
+
+    /**
+     * IDs in exactly one of the two sets, e.g. tasks whose completion changed between two snapshots.
+     */
+    public TaskBitmap xor(TaskBitmap other)
+    {
+        long[] longer = words.length >= other.words.length ? words : other.words;
+        long[] shorter = longer == words ? other.words : words;
+        long[] result = longer.clone();
+        for (int i = 0; i < shorter.length; i++)
+        {
+            result[i] ^= shorter[i];
+        }
+        return new TaskBitmap(result);
+    }
+
+    public boolean get(int taskId)
+    {
+        int word = taskId >> 6;
+        return taskId >= 0 && word < words.length && (words[word] & (1L << taskId)) != 0;
+    }
+
+    public int cardinality()
+    {
+        int count = 0;
+        for (long word : words)
+        {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public boolean isEmpty()
+    {
+        for (long word : words)
+        {
+            if (word != 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Visit set IDs in ascending order.
+     */
+    public void forEach(IntConsumer action)
+    {
+        for (int i = 0; i < words.length; i++)
+        {
+            long word = words[i];
+            while (word != 0)
+            {
+                action.accept((i << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    public int[] ids()
+    {
+        int[] ids = new int[cardinality()];
+        int[] n = {0};
+        forEach(id -> ids[n[0]++] = id);
+        return ids;
+    }
+
+    /**
+     * Same IDs, however many trailing empty words either side carries.
+     */
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o)
+        {
+            return true;
+        }
+        if (!(o instanceof TaskBitmap))
+        {
+            return false;
+        }
+
+        long[] other = ((TaskBitmap) o).words;
+        int n = Math.max(words.length, other.length);
+        for (int i = 0; i < n; i++)
+        {
+            if ((i < words.length ? words[i] : 0) != (i < other.length ? other[i] : 0))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0)
+        {
+            length--;
+        }
+        return Arrays.hashCode(Arrays.copyOf(words, length));
+    }
+}
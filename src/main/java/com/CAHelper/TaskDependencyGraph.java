@@ -0,0 +1,230 @@
+package com.CAHelper;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prerequisite DAG over task IDs, stored as compressed int adjacency arrays in both
+ * directions. Edges come from kill-count ladders (kill a boss 50 times before 100),
+ * the only ordering the game itself enforces between tasks.
+ * <p>
+ * Each task keeps a count of incomplete prerequisites. Completions are applied as
+ * bit flips against the last seen completion bitset, so a refresh only touches the
+ * dependents of tasks that changed instead of re-walking the graph.
+ */
+@Slf4j
+@Singleton
+public class TaskDependencyGraph
+{
+    // "Kill Zulrah 50 times." / "Kill the Kraken 1,000 times"
+    private static final Pattern KILL_COUNT_PATTERN = Pattern.compile("(?i)\\bkill\\b.*?\\b(\\d[\\d,]*)\\s+times");
+
+    private long builtVersion = -1;
+
+    // Incoming edges: prerequisites of task t are prereqs[prereqStart[t] .. prereqStart[t + 1])
+    private int[] prereqStart = new int[1];
+    private int[] prereqs = new int[0];
+
+    // Outgoing edges: tasks unlocked by t are dependents[dependentStart[t] .. dependentStart[t + 1])
+    private int[] dependentStart = new int[1];
+    private int[] dependents = new int[0];
+
+    // Incomplete prerequisites per task; 0 means unlocked
+    private int[] lockedBy = new int[0];
+    private long[] seenBits = new long[0];
+
+    /**
+     * Rebuild the edges if the wiki data changed, then apply completions since the last call.
+     */
+    public synchronized void sync(WikiSnapshot snapshot, long[] completionBits)
+    {
+        if (snapshot.getVersion() != builtVersion)
+        {
+            build(snapshot.getRows());
+            builtVersion = snapshot.getVersion();
+            seenBits = new long[0];
+        }
+
+        int capacity = lockedBy.length;
+        for (int word = 0; word < completionBits.length; word++)
+        {
+            long seen = word < seenBits.length ? seenBits[word] : 0;
+            long changed = completionBits[word] ^ seen;
+
+            while (changed != 0)
+            {
+                int bit = Long.numberOfTrailingZeros(changed);
+                changed &= changed - 1;
+
+                int taskId = (word << 6) + bit;
+                if (taskId >= capacity)
+                {
+                    continue;
+                }
+
+                int delta = (completionBits[word] & (1L << bit)) != 0 ? -1 : 1;
+                for (int e = dependentStart[taskId]; e < dependentStart[taskId + 1]; e++)
+                {
+                    lockedBy[dependents[e]] += delta;
+                }
+            }
+        }
+        seenBits = completionBits.clone();
+    }
+
+    private void build(List<RoutingAlgorithm.CombatAchievement> rows)
+    {
+        int capacity = 0;
+        Map<String, List<RoutingAlgorithm.CombatAchievement>> byMonster = new LinkedHashMap<>();
+        for (RoutingAlgorithm.CombatAchievement row : rows)
+        {
+            capacity = Math.max(capacity, row.getId() + 1);
+            byMonster.computeIfAbsent(row.getMonster(), k -> new ArrayList<>()).add(row);
+        }
+
+        List<int[]> edges = new ArrayList<>();
+
+        // Kill-count ladders: each step needs the one below it
+        for (Map.Entry<String, List<RoutingAlgorithm.CombatAchievement>> entry : byMonster.entrySet())
+        {
+            List<long[]> ladder = new ArrayList<>(); // {kills, taskId}
+            for (RoutingAlgorithm.CombatAchievement row : entry.getValue())
+            {
+                long kills = killCount(row);
+                if (kills > 0)
+                {
+                    ladder.add(new long[]{kills, row.getId()});
+                }
+            }
+
+            if (ladder.isEmpty())
+            {
+                continue;
+            }
+
+            ladder.sort((a, b) -> Long.compare(a[0], b[0]));
+
+            for (int i = 1; i < ladder.size(); i++)
+            {
+                // Equal counts are alternatives, not steps; link to the last lower count
+                int below = i - 1;
+                while (below >= 0 && ladder.get(below)[0] == ladder.get(i)[0])
+                {
+                    below--;
+                }
+                if (below >= 0)
+                {
+                    edges.add(new int[]{(int) ladder.get(below)[1], (int) ladder.get(i)[1]});
+                }
+            }
+        }
+
+        // Counting sort into both CSR layouts
+        prereqStart = new int[capacity + 1];
+        dependentStart = new int[capacity + 1];
+        for (int[] edge : edges)
+        {
+            dependentStart[edge[0] + 1]++;
+            prereqStart[edge[1] + 1]++;
+        }
+        for (int t = 0; t < capacity; t++)
+        {
+            dependentStart[t + 1] += dependentStart[t];
+            prereqStart[t + 1] += prereqStart[t];
+        }
+
+        dependents = new int[edges.size()];
+        prereqs = new int[edges.size()];
+        int[] outFill = dependentStart.clone();
+        int[] inFill = prereqStart.clone();
+        for (int[] edge : edges)
+        {
+            dependents[outFill[edge[0]]++] = edge[1];
+            prereqs[inFill[edge[1]]++] = edge[0];
+        }
+
+        // Nothing complete yet; sync applies the completion bits
+        lockedBy = new int[capacity];
+        for (int t = 0; t < capacity; t++)
+        {
+            lockedBy[t] = prereqStart[t + 1] - prereqStart[t];
+        }
+
+        log.info("Built task dependency graph: {} edges over {} tasks", edges.size(), rows.size());
+    }
+
+    private static long killCount(RoutingAlgorithm.CombatAchievement row)
+    {
+        if (row.getType() != RoutingAlgorithm.TaskType.KILLCOUNT || row.getDescription() == null)
+        {
+            return 0;
+        }
+
+        Matcher matcher = KILL_COUNT_PATTERN.matcher(row.getDescription());
+        if (!matcher.find())
+        {
+            return 0;
+        }
+
+        try
+        {
+            return Long.parseLong(matcher.group(1).replace(",", ""));
+        }
+        catch (NumberFormatException e)
+        {
+            return 0;
+        }
+    }
+
+    /**
+     * Whether every prerequisite of the task is complete. Tasks outside the graph are unlocked.
+     */
+    public synchronized boolean isUnlocked(int taskId)
+    {
+        return taskId < 0 || taskId >= lockedBy.length || lockedBy[taskId] <= 0;
+    }
+
+    /**
+     * Tasks with at least one incomplete prerequisite, as of the last sync.
+     */
+    public synchronized TaskBitmap getLocked()
+    {
+        TaskBitmap.Builder locked = TaskBitmap.builder(lockedBy.length);
+        for (int t = 0; t < lockedBy.length; t++)
+        {
+            if (lockedBy[t] > 0)
+            {
+                locked.set(t);
+            }
+        }
+        return locked.build();
+    }
+
+    public synchronized List<Integer> getPrerequisites(int taskId)
+    {
+        if (taskId < 0 || taskId >= lockedBy.length || prereqStart[taskId] == prereqStart[taskId + 1])
+        {
+            return Collections.emptyList();
+        }
+
+        List<Integer> ids = new ArrayList<>(prereqStart[taskId + 1] - prereqStart[taskId]);
+        for (int e = prereqStart[taskId]; e < prereqStart[taskId + 1]; e++)
+        {
+            ids.add(prereqs[e]);
+        }
+        return Collections.unmodifiableList(ids);
+    }
+
+    public synchronized int getEdgeCount()
+    {
+        return prereqs.length;
+    }
+}
@@ -0,0 +1,330 @@
+package com.CAHelper;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.List;
+
+/**
+ * Task lookups as bitmaps over task IDs. Static attributes (boss, difficulty, type,
+ * group, wilderness) are indexed once per wiki/metadata version; completion, skips and
+ * prerequisite locks come from live state on each call. Callers combine them with
+ * {@link TaskBitmap#and}, {@link TaskBitmap#or} and {@link TaskBitmap#andNot}, e.g.
+ * {@code incomplete().and(boss(id)).andNot(skipped())}.
+ */
+@Slf4j
+@Singleton
+public class TaskQueryEngine
+{
+    private static final RoutingAlgorithm.Difficulty[] DIFFICULTIES = RoutingAlgorithm.Difficulty.values();
+    private static final RoutingAlgorithm.TaskType[] TASK_TYPES = RoutingAlgorithm.TaskType.values();
+
+    private static final String[] GROUP_NAME_PATTERNS = {
+            "duo", "trio", "4-scale", "5-scale", "6-scale", "7-scale", "8-scale",
+            "4-man", "5-man", "4man", "5man", "team of", "group of", "party of"
+    };
+
+    private static final String[] GROUP_DESCRIPTION_PATTERNS = {
+            "in a group of", "in a team of", "in a party of", "with a team of",
+            "with a group of", "with a party of", "as a team", "as a group",
+            "in a duo", "in a trio", "with at least 2", "with at least 3",
+            "with at least 4", "with at least 5", "with 2 or more",
+            "with 3 or more", "with 4 or more", "with 5 or more",
+            "alongside", "other players"
+    };
+
+    private static final String[] WILDERNESS_INDICATORS = {
+            "wilderness", "wildy", "callisto", "venenatis", "vet'ion", "vetion",
+            "artio", "spindel", "calvar'ion", "calvarion", "scorpia",
+            "chaos elemental", "crazy archaeologist", "chaos fanatic",
+            "king black dragon", "kbd", "revenant", "lava dragon"
+    };
+
+    @Inject
+    private CombatAchievementService combatAchievementService;
+
+    @Inject
+    private CombatAchievementEnrichmentService enrichmentService;
+
+    @Inject
+    private BossMetadataService bossMetadataService;
+
+    @Inject
+    private ManualCompletionManager manualCompletionManager;
+
+    @Inject
+    private TaskDependencyGraph dependencyGraph;
+
+    // What the static index was built from
+    private long wikiVersion = -1;
+    private int taskCount = -1;
+    private int metadataCount = -1;
+    private long indexVersion = 0;
+
+    private TaskBitmap all = TaskBitmap.empty();
+    private TaskBitmap[] byBoss = new TaskBitmap[0];
+    private final TaskBitmap[] byDifficulty = new TaskBitmap[DIFFICULTIES.length];
+    private final TaskBitmap[] byType = new TaskBitmap[TASK_TYPES.length];
+    private TaskBitmap group = TaskBitmap.empty();
+    private TaskBitmap wilderness = TaskBitmap.empty();
+
+    public synchronized TaskBitmap all()
+    {
+        sync();
+        return all;
+    }
+
+    /**
+     * Changes whenever the static index is rebuilt, i.e. when task attributes may have changed.
+     */
+    public synchronized long version()
+    {
+        sync();
+        return indexVersion;
+    }
+
+    public synchronized TaskBitmap boss(int bossId)
+    {
+        sync();
+        return bossId >= 0 && bossId < byBoss.length && byBoss[bossId] != null ? byBoss[bossId] : TaskBitmap.empty();
+    }
+
+    public synchronized TaskBitmap difficulty(RoutingAlgorithm.Difficulty difficulty)
+    {
+        sync();
+        return byDifficulty[difficulty.ordinal()];
+    }
+
+    /**
+     * Tasks from min to max difficulty, inclusive.
+     */
+    public synchronized TaskBitmap difficultyBetween(RoutingAlgorithm.Difficulty min, RoutingAlgorithm.Difficulty max)
+    {
+        sync();
+        TaskBitmap result = TaskBitmap.empty();
+        for (int d = min.ordinal(); d <= max.ordinal(); d++)
+        {
+            result = result.or(byDifficulty[d]);
+        }
+        return result;
+    }
+
+    public synchronized TaskBitmap type(RoutingAlgorithm.TaskType type)
+    {
+        sync();
+        return byType[type.ordinal()];
+    }
+
+    /**
+     * Tasks that need a group, either by type, wording or because the boss is group-only.
+     */
+    public synchronized TaskBitmap group()
+    {
+        sync();
+        return group;
+    }
+
+    public synchronized TaskBitmap wilderness()
+    {
+        sync();
+        return wilderness;
+    }
+
+    public TaskBitmap complete()
+    {
+        return TaskBitmap.of(combatAchievementService.getCompletionBits()).and(all());
+    }
+
+    public TaskBitmap incomplete()
+    {
+        return all().andNot(complete());
+    }
+
+    /**
+     * Tasks the player marked as skipped in the panel.
+     */
+    public TaskBitmap skipped()
+    {
+        return manualCompletionManager.getSkipped();
+    }
+
+    /**
+     * Incomplete tasks with an incomplete prerequisite.
+     */
+    public TaskBitmap locked()
+    {
+        dependencyGraph.sync(enrichmentService.getSnapshot(), combatAchievementService.getCompletionBits());
+        return dependencyGraph.getLocked();
+    }
+
+    /**
+     * Routing view of the selected tasks, in task ID order.
+     */
+    public List<RoutingAlgorithm.CombatAchievement> tasks(TaskBitmap selection)
+    {
+        return enrichmentService.getEnrichedTasks(selection);
+    }
+
+    /**
+     * Drop the index; the next query rebuilds it.
+     */
+    public synchronized void reset()
+    {
+        wikiVersion = -1;
+        taskCount = -1;
+        metadataCount = -1;
+    }
+
+    private void sync()
+    {
+        long version = enrichmentService.getSnapshot().getVersion();
+        int tasks = combatAchievementService.getStore().size();
+        int metadata = bossMetadataService.size();
+
+        if (version == wikiVersion && tasks == taskCount && metadata == metadataCount)
+        {
+            return;
+        }
+
+        rebuild();
+        indexVersion++;
+        wikiVersion = version;
+        taskCount = tasks;
+        metadataCount = metadata;
+    }
+
+    private void rebuild()
+    {
+        long start = System.nanoTime();
+        List<RoutingAlgorithm.CombatAchievement> rows = enrichmentService.getAllEnrichedTasks();
+
+        int capacity = combatAchievementService.getStore().capacity();
+        int bossCount = 0;
+        for (RoutingAlgorithm.CombatAchievement row : rows)
+        {
+            bossCount = Math.max(bossCount, row.getBossId() + 1);
+        }
+
+        TaskBitmap.Builder allBuilder = TaskBitmap.builder(capacity);
+        TaskBitmap.Builder[] bossBuilders = new TaskBitmap.Builder[bossCount];
+        TaskBitmap.Builder[] difficultyBuilders = new TaskBitmap.Builder[DIFFICULTIES.length];
+        TaskBitmap.Builder[] typeBuilders = new TaskBitmap.Builder[TASK_TYPES.length];
+        TaskBitmap.Builder groupBuilder = TaskBitmap.builder(capacity);
+        TaskBitmap.Builder wildernessBuilder = TaskBitmap.builder(capacity);
+        for (int d = 0; d < difficultyBuilders.length; d++)
+        {
+            difficultyBuilders[d] = TaskBitmap.builder(capacity);
+        }
+        for (int t = 0; t < typeBuilders.length; t++)
+        {
+            typeBuilders[t] = TaskBitmap.builder(capacity);
+        }
+
+        for (RoutingAlgorithm.CombatAchievement row : rows)
+        {
+            int id = row.getId();
+            allBuilder.set(id);
+            difficultyBuilders[row.getDifficulty().ordinal()].set(id);
+
+            if (row.getType() != null)
+            {
+                typeBuilders[row.getType().ordinal()].set(id);
+            }
+
+            int bossId = row.getBossId();
+            if (bossId >= 0)
+            {
+                if (bossBuilders[bossId] == null)
+                {
+                    bossBuilders[bossId] = TaskBitmap.builder(capacity);
+                }
+                bossBuilders[bossId].set(id);
+            }
+
+            if (isGroupContent(row))
+            {
+                groupBuilder.set(id);
+            }
+            if (isWildernessContent(row))
+            {
+                wildernessBuilder.set(id);
+            }
+        }
+
+        all = allBuilder.build();
+        byBoss = new TaskBitmap[bossCount];
+        for (int b = 0; b < bossCount; b++)
+        {
+            byBoss[b] = bossBuilders[b] != null ? bossBuilders[b].build() : null;
+        }
+        for (int d = 0; d < difficultyBuilders.length; d++)
+        {
+            byDifficulty[d] = difficultyBuilders[d].build();
+        }
+        for (int t = 0; t < typeBuilders.length; t++)
+        {
+            byType[t] = typeBuilders[t].build();
+        }
+        group = groupBuilder.build();
+        wilderness = wildernessBuilder.build();
+
+        log.debug("Task index rebuilt for {} tasks, {} bosses in {}us ({} group, {} wilderness)",
+                rows.size(), bossCount, (System.nanoTime() - start) / 1000,
+                group.cardinality(), wilderness.cardinality());
+    }
+
+    private boolean isGroupContent(RoutingAlgorithm.CombatAchievement task)
+    {
+        if (task.getType() == RoutingAlgorithm.TaskType.GROUPSIZE || bossMetadataService.isGroupOnly(task.getBossId()))
+        {
+            return true;
+        }
+
+        // Group requirements are per task, so the wording still has to be checked
+        String name = task.getName().toLowerCase();
+        String description = task.getDescription() != null ? task.getDescription().toLowerCase() : "";
+
+        for (String pattern : GROUP_NAME_PATTERNS)
+        {
+            if (name.contains(pattern))
+            {
+                return true;
+            }
+        }
+
+        for (String pattern : GROUP_DESCRIPTION_PATTERNS)
+        {
+            if (description.contains(pattern))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isWildernessContent(RoutingAlgorithm.CombatAchievement task)
+    {
+        // Prefer the boss page's location; keywords only cover bosses without metadata
+        Boolean wilderness = bossMetadataService.isWilderness(task.getBossId());
+        if (wilderness != null)
+        {
+            return wilderness;
+        }
+
+        String name = task.getName().toLowerCase();
+        String monster = task.getMonster().toLowerCase();
+        String desc = task.getDescription() != null ? task.getDescription().toLowerCase() : "";
+
+        for (String indicator : WILDERNESS_INDICATORS)
+        {
+            if (name.contains(indicator) || monster.contains(indicator) || desc.contains(indicator))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,442 @@
+package com.CAHelper;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Search-as-you-type over task names, monsters and descriptions.
+ * <p>
+ * Every word is a token with a postings list of the tasks it appears in. Tokens
+ * sit in sorted order under a prefix trie whose nodes store the range of tokens
+ * below them, so a typed prefix resolves to a token range in one walk down the trie.
+ * Typing more of the same query only re-scores the previous matches.
+ * <p>
+ * The index is built on the client thread by {@link #refresh}, which reads the task
+ * store, and published whole; {@link #search} runs on the Swing thread and only ever
+ * reads a published index.
+ */
+@Slf4j
+@Singleton
+public class TaskSearchIndex
+{
+    // Field weights: a name hit outranks a boss hit, which outranks a description hit
+    private static final int FIELD_NAME = 1;
+    private static final int FIELD_MONSTER = 1 << 1;
+    private static final int FIELD_DESCRIPTION = 1 << 2;
+    private static final int WEIGHT_NAME = 6;
+    private static final int WEIGHT_MONSTER = 4;
+    private static final int WEIGHT_DESCRIPTION = 1;
+    private static final int WHOLE_WORD_BONUS = 2;
+
+    @Inject
+    private CombatAchievementService combatAchievementService;
+
+    @Inject
+    private CombatAchievementEnrichmentService enrichmentService;
+
+    @Value
+    public static class Result
+    {
+        int taskId;
+        String name;
+        String monster;
+        int bossId;
+        RoutingAlgorithm.Difficulty difficulty;
+        int score;
+    }
+
+    private final AtomicReference<Index> published = new AtomicReference<>(Index.EMPTY);
+
+    // Swing thread only: the index the state below belongs to
+    private Index searched = Index.EMPTY;
+
+    // Running score per task for the current query; only matched entries are meaningful
+    private int[] score = new int[0];
+
+    // Last query and every task it matched, for refining as the user types
+    private String lastQuery = "";
+    private int[] lastMatches;
+
+    /**
+     * Immutable once published.
+     */
+    private static final class Index
+    {
+        static final Index EMPTY = new Index(-1, -1, new String[0], new int[0][], new byte[0][], new Trie(),
+                new RoutingAlgorithm.CombatAchievement[0]);
+
+        // What the index was built from
+        final long wikiVersion;
+        final int taskCount;
+
+        // Tokens in sorted order; postings[t] / fields[t] are parallel, task IDs ascending
+        final String[] tokens;
+        final int[][] postings;
+        final byte[][] fields;
+        final Trie trie;
+
+        // Task columns by ID
+        final RoutingAlgorithm.CombatAchievement[] tasks;
+
+        Index(long wikiVersion, int taskCount, String[] tokens, int[][] postings, byte[][] fields, Trie trie,
+              RoutingAlgorithm.CombatAchievement[] tasks)
+        {
+            this.wikiVersion = wikiVersion;
+            this.taskCount = taskCount;
+            this.tokens = tokens;
+            this.postings = postings;
+            this.fields = fields;
+            this.trie = trie;
+            this.tasks = tasks;
+        }
+    }
+
+    public TaskSearchIndex()
+    {
+    }
+
+    TaskSearchIndex(CombatAchievementService combatAchievementService, CombatAchievementEnrichmentService enrichmentService)
+    {
+        this.combatAchievementService = combatAchievementService;
+        this.enrichmentService = enrichmentService;
+    }
+
+    /**
+     * Prefix trie over the sorted tokens. Each node covers tokens[first .. last).
+     */
+    private static class Trie
+    {
+        final TreeMap<Character, Trie> children = new TreeMap<>();
+        int first;
+        int last;
+    }
+
+    /**
+     * Best matches for the query in the last published index, highest score first.
+     * Every word in the query must match the start of some word in the task. Swing thread only.
+     */
+    public List<Result> search(String query, int limit)
+    {
+        Index index = published.get();
+        if (index != searched)
+        {
+            searched = index;
+            score = new int[index.tasks.length];
+            lastQuery = "";
+            lastMatches = null;
+        }
+
+        String[] terms = tokenize(query);
+        if (terms.length == 0 || index.tokens.length == 0)
+        {
+            lastQuery = "";
+            lastMatches = null;
+            return Collections.emptyList();
+        }
+
+        String normalized = String.join(" ", terms);
+        // Typing more of the same query can only narrow the matches
+        int[] candidates = lastMatches != null && !lastQuery.isEmpty() && normalized.startsWith(lastQuery)
+                ? lastMatches : null;
+
+        int[] matches = candidates;
+        for (int i = 0; i < terms.length; i++)
+        {
+            matches = scoreTerm(index, terms[i], matches, i == 0);
+            if (matches.length == 0)
+            {
+                break;
+            }
+        }
+
+        lastQuery = normalized;
+        lastMatches = matches;
+
+        return top(index, matches, limit);
+    }
+
+    /**
+     * Add the term's best field weight to every candidate containing it.
+     * @param candidates tasks still in the running, or null for all
+     * @param first whether this is the query's first term, which resets the scores
+     * @return candidates that contain the term
+     */
+    private int[] scoreTerm(Index index, String term, int[] candidates, boolean first)
+    {
+        RoutingAlgorithm.CombatAchievement[] tasks = index.tasks;
+        Trie node = index.trie;
+        for (int i = 0; i < term.length() && node != null; i++)
+        {
+            node = node.children.get(term.charAt(i));
+        }
+        if (node == null)
+        {
+            return new int[0];
+        }
+
+        // Per-term best weight, so a term repeated across fields counts once
+        int[] termScore = new int[tasks.length];
+        for (int t = node.first; t < node.last; t++)
+        {
+            int bonus = index.tokens[t].length() == term.length() ? WHOLE_WORD_BONUS : 0;
+            int[] ids = index.postings[t];
+            byte[] fieldMasks = index.fields[t];
+            for (int p = 0; p < ids.length; p++)
+            {
+                int weight = weight(fieldMasks[p]) + bonus;
+                if (weight > termScore[ids[p]])
+                {
+                    termScore[ids[p]] = weight;
+                }
+            }
+        }
+
+        int[] kept = new int[candidates != null ? candidates.length : tasks.length];
+        int n = 0;
+        if (candidates == null || first)
+        {
+            // Fresh pass: scores start from this term
+            int[] pool = candidates;
+            if (pool == null)
+            {
+                pool = new int[tasks.length];
+                for (int id = 0; id < pool.length; id++)
+                {
+                    pool[id] = id;
+                }
+            }
+            for (int id : pool)
+            {
+                if (termScore[id] > 0)
+                {
+                    score[id] = termScore[id];
+                    kept[n++] = id;
+                }
+            }
+        }
+        else
+        {
+            for (int id : candidates)
+            {
+                if (termScore[id] > 0)
+                {
+                    score[id] += termScore[id];
+                    kept[n++] = id;
+                }
+            }
+        }
+        return Arrays.copyOf(kept, n);
+    }
+
+    private static int weight(byte fieldMask)
+    {
+        int weight = 0;
+        if ((fieldMask & FIELD_NAME) != 0)
+        {
+            weight = Math.max(weight, WEIGHT_NAME);
+        }
+        if ((fieldMask & FIELD_MONSTER) != 0)
+        {
+            weight = Math.max(weight, WEIGHT_MONSTER);
+        }
+        if ((fieldMask & FIELD_DESCRIPTION) != 0)
+        {
+            weight = Math.max(weight, WEIGHT_DESCRIPTION);
+        }
+        return weight;
+    }
+
+    private List<Result> top(Index index, int[] matches, int limit)
+    {
+        RoutingAlgorithm.CombatAchievement[] tasks = index.tasks;
+        Integer[] order = new Integer[matches.length];
+        for (int i = 0; i < matches.length; i++)
+        {
+            order[i] = matches[i];
+        }
+
+        // Highest score, then shorter (closer) names, then easier tasks
+        Arrays.sort(order, (a, b) -> {
+            if (score[a] != score[b])
+            {
+                return score[b] - score[a];
+            }
+            int byLength = tasks[a].getName().length() - tasks[b].getName().length();
+            return byLength != 0 ? byLength : tasks[a].getDifficulty().compareTo(tasks[b].getDifficulty());
+        });
+
+        List<Result> results = new ArrayList<>(Math.min(limit, order.length));
+        for (int i = 0; i < order.length && results.size() < limit; i++)
+        {
+            RoutingAlgorithm.CombatAchievement task = tasks[order[i]];
+            results.add(new Result(task.getId(), task.getName(), task.getMonster(), task.getBossId(),
+                    task.getDifficulty(), score[order[i]]));
+        }
+        return results;
+    }
+
+    /**
+     * Rebuild and publish the index if the task list or wiki data changed since the
+     * last build. Client thread only, since it reads the task store.
+     */
+    public void refresh()
+    {
+        long version = enrichmentService.getSnapshot().getVersion();
+        int count = combatAchievementService.isInitialized() ? combatAchievementService.getStore().size() : 0;
+
+        Index current = published.get();
+        if (version != current.wikiVersion || count != current.taskCount)
+        {
+            published.set(build(version, count));
+        }
+    }
+
+    private Index build(long wikiVersion, int taskCount)
+    {
+        long start = System.nanoTime();
+
+        List<RoutingAlgorithm.CombatAchievement> rows = rows();
+        int capacity = 0;
+        for (RoutingAlgorithm.CombatAchievement row : rows)
+        {
+            capacity = Math.max(capacity, row.getId() + 1);
+        }
+
+        RoutingAlgorithm.CombatAchievement[] tasks = new RoutingAlgorithm.CombatAchievement[capacity];
+        // token -> task ID -> field mask, both in sorted order
+        Map<String, TreeMap<Integer, Integer>> index = new TreeMap<>();
+        for (RoutingAlgorithm.CombatAchievement row : rows)
+        {
+            tasks[row.getId()] = row;
+            addField(index, row.getId(), row.getName(), FIELD_NAME);
+            addField(index, row.getId(), row.getMonster(), FIELD_MONSTER);
+            addField(index, row.getId(), row.getDescription(), FIELD_DESCRIPTION);
+        }
+
+        String[] tokens = index.keySet().toArray(new String[0]);
+        int[][] postings = new int[tokens.length][];
+        byte[][] fields = new byte[tokens.length][];
+        int t = 0;
+        for (TreeMap<Integer, Integer> posting : index.values())
+        {
+            postings[t] = new int[posting.size()];
+            fields[t] = new byte[posting.size()];
+            int p = 0;
+            for (Map.Entry<Integer, Integer> entry : posting.entrySet())
+            {
+                postings[t][p] = entry.getKey();
+                fields[t][p++] = (byte) (int) entry.getValue();
+            }
+            t++;
+        }
+
+        log.debug("Search index built: {} tokens over {} tasks in {}us",
+                tokens.length, rows.size(), (System.nanoTime() - start) / 1000);
+        return new Index(wikiVersion, taskCount, tokens, postings, fields, buildTrie(tokens), tasks);
+    }
+
+    /**
+     * Task text without completion state, so building never touches the client.
+     */
+    private List<RoutingAlgorithm.CombatAchievement> rows()
+    {
+        if (!combatAchievementService.isInitialized())
+        {
+            return Collections.emptyList();
+        }
+
+        TaskStore store = combatAchievementService.getStore();
+        WikiSnapshot snapshot = enrichmentService.getSnapshot();
+        Map<Integer, RoutingAlgorithm.CombatAchievement> wikiRows = new TreeMap<>();
+        for (RoutingAlgorithm.CombatAchievement row : snapshot.getRows())
+        {
+            wikiRows.putIfAbsent(row.getId(), row);
+        }
+
+        List<RoutingAlgorithm.CombatAchievement> rows = new ArrayList<>(store.size());
+        for (int taskId : store.ids())
+        {
+            RoutingAlgorithm.CombatAchievement wiki = wikiRows.get(taskId);
+            RoutingAlgorithm.CombatAchievement cache = combatAchievementService.toRoutingTask(taskId, false);
+            rows.add(wiki == null ? cache : new RoutingAlgorithm.CombatAchievement(
+                    taskId,
+                    wiki.getName(),
+                    wiki.getMonster(),
+                    snapshot.getStore().getBossId(taskId),
+                    cache.getDifficulty(),
+                    cache.getType(),
+                    0.0,
+                    false,
+                    wiki.getDescription(),
+                    Collections.emptyList()
+            ));
+        }
+        return rows;
+    }
+
+    private static void addField(Map<String, TreeMap<Integer, Integer>> index, int taskId, String text, int field)
+    {
+        for (String token : tokenize(text))
+        {
+            index.computeIfAbsent(token, k -> new TreeMap<>()).merge(taskId, field, (a, b) -> a | b);
+        }
+    }
+
+    private static Trie buildTrie(String[] sorted)
+    {
+        Trie root = new Trie();
+        root.first = 0;
+        root.last = sorted.length;
+
+        for (int t = 0; t < sorted.length; t++)
+        {
+            Trie node = root;
+            for (int i = 0; i < sorted[t].length(); i++)
+            {
+                Trie child = node.children.get(sorted[t].charAt(i));
+                if (child == null)
+                {
+                    // Tokens are sorted, so a new node's range starts here
+                    child = new Trie();
+                    child.first = t;
+                    node.children.put(sorted[t].charAt(i), child);
+                }
+                child.last = t + 1;
+                node = child;
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Lower-case words, splitting on anything that isn't a letter, digit or apostrophe.
+     */
+    static String[] tokenize(String text)
+    {
+        if (text == null || text.isEmpty())
+        {
+            return new String[0];
+        }
+
+        List<String> words = new ArrayList<>();
+        for (String word : text.toLowerCase().split("[^\\p{L}\\p{N}']+"))
+        {
+            word = word.replace("'", "");
+            if (!word.isEmpty())
+            {
+                words.add(word);
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+}
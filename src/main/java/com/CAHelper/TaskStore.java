@@ -0,0 +1,236 @@
+package com.CAHelper;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Struct-of-arrays store for the CA task universe.
+ * Every column is indexed directly by task ID, which the game keeps dense and small.
+ */
+public class TaskStore
+{
+    private static final int INITIAL_CAPACITY = 640;
+
+    public static final int FLAG_PRESENT = 1;
+    public static final int FLAG_HAS_MONSTER = 1 << 1;
+
+    private static final RoutingAlgorithm.Difficulty[] DIFFICULTIES = RoutingAlgorithm.Difficulty.values();
+    private static final RoutingAlgorithm.TaskType[] TASK_TYPES = RoutingAlgorithm.TaskType.values();
+
+    // Primitive columns
+    private int[] difficulty;
+    private int[] points;
+    private int[] bossId;
+    private int[] structId;
+    private byte[] type;
+    private int[] flags;
+
+    // String side tables
+    private String[] names;
+    private String[] descriptions;
+    private final Map<String, Integer> idsByName = new HashMap<>();
+
+    // Present task IDs in ascending order, for tight scans
+    private int[] ids = new int[0];
+    private boolean idsDirty = false;
+    private int size = 0;
+
+    public TaskStore()
+    {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity)
+    {
+        difficulty = new int[capacity];
+        points = new int[capacity];
+        bossId = new int[capacity];
+        structId = new int[capacity];
+        type = new byte[capacity];
+        flags = new int[capacity];
+        names = new String[capacity];
+        descriptions = new String[capacity];
+        Arrays.fill(bossId, BossDictionary.UNKNOWN);
+    }
+
+    private void ensureCapacity(int taskId)
+    {
+        int capacity = difficulty.length;
+        if (taskId < capacity)
+        {
+            return;
+        }
+
+        int newCapacity = Math.max(taskId + 1, capacity * 2);
+        difficulty = Arrays.copyOf(difficulty, newCapacity);
+        points = Arrays.copyOf(points, newCapacity);
+        structId = Arrays.copyOf(structId, newCapacity);
+        type = Arrays.copyOf(type, newCapacity);
+        flags = Arrays.copyOf(flags, newCapacity);
+        names = Arrays.copyOf(names, newCapacity);
+        descriptions = Arrays.copyOf(descriptions, newCapacity);
+        bossId = Arrays.copyOf(bossId, newCapacity);
+        Arrays.fill(bossId, capacity, newCapacity, BossDictionary.UNKNOWN);
+    }
+
+    public void add(int taskId, String name, String description, RoutingAlgorithm.Difficulty taskDifficulty,
+                    RoutingAlgorithm.TaskType taskType, int taskStructId, int monsterId)
+    {
+        if (taskId < 0)
+        {
+            return;
+        }
+
+        ensureCapacity(taskId);
+
+        if ((flags[taskId] & FLAG_PRESENT) == 0)
+        {
+            size++;
+        }
+        else if (names[taskId] != null)
+        {
+            idsByName.remove(names[taskId]);
+        }
+
+        difficulty[taskId] = taskDifficulty.ordinal();
+        points[taskId] = taskDifficulty.getPoints();
+        bossId[taskId] = monsterId;
+        structId[taskId] = taskStructId;
+        type[taskId] = (byte) taskType.ordinal();
+        names[taskId] = name;
+        descriptions[taskId] = description;
+        flags[taskId] = FLAG_PRESENT | (monsterId >= 0 ? FLAG_HAS_MONSTER : 0);
+
+        if (name != null)
+        {
+            idsByName.put(name, taskId);
+        }
+        idsDirty = true;
+    }
+
+    public void add(CombatAchievementService.CombatAchievementTask task)
+    {
+        add(task.id, task.name, task.description, task.difficulty, RoutingAlgorithm.TaskType.MECHANICAL,
+                task.structId, task.monsterId);
+    }
+
+    public void clear()
+    {
+        allocate(INITIAL_CAPACITY);
+        idsByName.clear();
+        ids = new int[0];
+        idsDirty = false;
+        size = 0;
+    }
+
+    /**
+     * Present task IDs in ascending order. Callers must not modify the array.
+     */
+    public int[] ids()
+    {
+        if (idsDirty)
+        {
+            int[] rebuilt = new int[size];
+            int n = 0;
+            for (int id = 0; id < flags.length && n < size; id++)
+            {
+                if ((flags[id] & FLAG_PRESENT) != 0)
+                {
+                    rebuilt[n++] = id;
+                }
+            }
+            ids = rebuilt;
+            idsDirty = false;
+        }
+        return ids;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * One past the highest task ID the columns can hold.
+     */
+    public int capacity()
+    {
+        return flags.length;
+    }
+
+    public boolean contains(int taskId)
+    {
+        return taskId >= 0 && taskId < flags.length && (flags[taskId] & FLAG_PRESENT) != 0;
+    }
+
+    /**
+     * @return the task ID, or -1 if no task has this name
+     */
+    public int findByName(String name)
+    {
+        Integer id = idsByName.get(name);
+        return id != null ? id : -1;
+    }
+
+    public RoutingAlgorithm.Difficulty getDifficulty(int taskId)
+    {
+        return DIFFICULTIES[difficulty[taskId]];
+    }
+
+    public int getDifficultyOrdinal(int taskId)
+    {
+        return difficulty[taskId];
+    }
+
+    public int getPoints(int taskId)
+    {
+        return points[taskId];
+    }
+
+    public int getBossId(int taskId)
+    {
+        return bossId[taskId];
+    }
+
+    public int getStructId(int taskId)
+    {
+        return structId[taskId];
+    }
+
+    public RoutingAlgorithm.TaskType getType(int taskId)
+    {
+        return TASK_TYPES[type[taskId]];
+    }
+
+    public int getFlags(int taskId)
+    {
+        return flags[taskId];
+    }
+
+    public String getName(int taskId)
+    {
+        return names[taskId];
+    }
+
+    public String getDescription(int taskId)
+    {
+        return descriptions[taskId];
+    }
+
+    /**
+     * Materialize a task object, for persistence and debugging.
+     */
+    public CombatAchievementService.CombatAchievementTask toTask(int taskId)
+    {
+        return new CombatAchievementService.CombatAchievementTask(
+                taskId,
+                names[taskId],
+                descriptions[taskId],
+                getDifficulty(taskId),
+                points[taskId],
+                structId[taskId],
+                bossId[taskId]
+        );
+    }
+}
@@ -0,0 +1,147 @@
+package com.CAHelper;
+
+import com.google.gson.Gson;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.RuneLite;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persists the decoded CA task table so struct decoding only happens after game updates.
+ * The table is keyed by a fingerprint of the tier enums' struct ID lists.
+ */
+@Slf4j
+@Singleton
+public class TaskTableCache
+{
+    private static final String CACHE_FILE = "ca-struct-cache.json";
+
+    // Bump when CombatAchievementTask's persisted fields change
+    private static final int FORMAT_VERSION = 2;
+
+    @Inject
+    private Gson gson;
+
+    /**
+     * Fingerprint the struct ID lists of every tier enum (FNV-1a over enum IDs, lengths and values).
+     */
+    public static long fingerprint(int[] enumIds, int[][] structIdsByTier)
+    {
+        long hash = 0xcbf29ce484222325L;
+
+        for (int tier = 0; tier < enumIds.length; tier++)
+        {
+            hash = mix(hash, enumIds[tier]);
+
+            int[] structIds = structIdsByTier[tier];
+            hash = mix(hash, structIds.length);
+
+            for (int structId : structIds)
+            {
+                hash = mix(hash, structId);
+            }
+        }
+
+        return hash;
+    }
+
+    private static long mix(long hash, int value)
+    {
+        for (int shift = 0; shift < 32; shift += 8)
+        {
+            hash ^= (value >>> shift) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Load the persisted table if it was written for the same fingerprint.
+     * Blocking - call off the client thread.
+     * @return the tasks, or null on a miss
+     */
+    public List<CombatAchievementService.CombatAchievementTask> load(long fingerprint)
+    {
+        File cacheFile = new File(RuneLite.RUNELITE_DIR, CACHE_FILE);
+
+        if (!cacheFile.exists())
+        {
+            log.debug("Struct cache file doesn't exist");
+            return null;
+        }
+
+        try (Reader reader = new InputStreamReader(new FileInputStream(cacheFile), StandardCharsets.UTF_8))
+        {
+            CachedTable table = gson.fromJson(reader, CachedTable.class);
+
+            if (table == null || table.tasks == null || table.tasks.isEmpty())
+            {
+                log.warn("Struct cache empty or invalid");
+                return null;
+            }
+
+            if (table.formatVersion != FORMAT_VERSION || table.fingerprint != fingerprint)
+            {
+                log.info("Struct cache is stale (game cache changed), re-reading structs");
+                return null;
+            }
+
+            log.info("Loaded {} tasks from struct cache", table.tasks.size());
+            return table.tasks;
+        }
+        catch (Exception e)
+        {
+            log.error("Failed to load struct cache", e);
+            return null;
+        }
+    }
+
+    /**
+     * Persist the table under its fingerprint. Blocking - call off the client thread.
+     */
+    public void save(long fingerprint, Collection<CombatAchievementService.CombatAchievementTask> tasks)
+    {
+        CachedTable table = new CachedTable();
+        table.formatVersion = FORMAT_VERSION;
+        table.fingerprint = fingerprint;
+        table.tasks = List.copyOf(tasks);
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(new File(RuneLite.RUNELITE_DIR, CACHE_FILE)), StandardCharsets.UTF_8))
+        {
+            gson.toJson(table, writer);
+            log.info("Saved {} tasks to struct cache", tasks.size());
+        }
+        catch (Exception e)
+        {
+            log.error("Failed to save struct cache", e);
+        }
+    }
+
+    public void clear()
+    {
+        File cacheFile = new File(RuneLite.RUNELITE_DIR, CACHE_FILE);
+        if (cacheFile.exists())
+        {
+            cacheFile.delete();
+            log.info("Struct cache cleared");
+        }
+    }
+
+    private static class CachedTable
+    {
+        int formatVersion;
+        long fingerprint;
+        List<CombatAchievementService.CombatAchievementTask> tasks;
+    }
+}
@@ -0,0 +1,349 @@
+package com.CAHelper;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Singleton;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Orders the top recommended bosses into a short travel route using the
+ * boss-to-boss matrix precomputed at build time (see buildTravelMatrix in build.gradle).
+ * Routes are built off the client thread with nearest-neighbour plus 2-opt, on the
+ * plugin's executor, and the client thread only ever applies a finished route.
+ */
+@Slf4j
+@Singleton
+public class TravelRouter
+{
+    private static final String MATRIX_RESOURCE = "travel-matrix.tsv";
+
+    // One frame; 2-opt stops improving once this is spent
+    private static final long ROUTE_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(16);
+
+    private Map<String, Integer> indexByBoss;
+    private int[][] distance;
+
+    // Last finished route and the set of bosses it was built for
+    private final AtomicReference<Route> route = new AtomicReference<>();
+    private final AtomicReference<String> pendingKey = new AtomicReference<>();
+
+    private volatile Runnable onRouteReady = () -> {};
+    private volatile Executor executor;
+
+    private static class Route
+    {
+        final String key;
+        final int[] bossIds;
+
+        Route(String key, int[] bossIds)
+        {
+            this.key = key;
+            this.bossIds = bossIds;
+        }
+    }
+
+    /**
+     * Build routes on this executor. Until then, and after {@link #shutDown}, no routes are built.
+     */
+    public void startUp(Executor executor)
+    {
+        this.executor = executor;
+    }
+
+    public void shutDown()
+    {
+        executor = null;
+        pendingKey.set(null);
+    }
+
+    /**
+     * Called (off the client thread) when a new route has been built.
+     */
+    public void setOnRouteReady(Runnable onRouteReady)
+    {
+        this.onRouteReady = onRouteReady;
+    }
+
+    /**
+     * Reorder the first {@code count} recommendations into the cached travel route for
+     * that set of bosses. If there is none yet, one is built in the background and the
+     * list is returned unchanged; {@link #setOnRouteReady} fires once it is ready.
+     */
+    public List<RoutingAlgorithm.BossRecommendation> applyRoute(List<RoutingAlgorithm.BossRecommendation> recommendations, int count)
+    {
+        int n = Math.min(count, recommendations.size());
+        if (n < 3 || !ensureLoaded())
+        {
+            return recommendations; // nothing to reorder
+        }
+
+        List<RoutingAlgorithm.BossRecommendation> top = recommendations.subList(0, n);
+        String key = key(top);
+
+        Route current = route.get();
+        if (current == null || !current.key.equals(key))
+        {
+            Executor executor = this.executor;
+            if (executor != null && !key.equals(pendingKey.getAndSet(key)))
+            {
+                List<RoutingAlgorithm.BossRecommendation> snapshot = new ArrayList<>(top);
+                try
+                {
+                    CompletableFuture.runAsync(() -> build(key, snapshot), executor)
+                            .exceptionally(e -> {
+                                log.warn("Route build failed", e);
+                                return null;
+                            });
+                }
+                catch (RejectedExecutionException e)
+                {
+                    // Shutting down
+                    pendingKey.compareAndSet(key, null);
+                }
+            }
+            return recommendations;
+        }
+
+        Map<Integer, RoutingAlgorithm.BossRecommendation> byId = new HashMap<>();
+        for (RoutingAlgorithm.BossRecommendation rec : top)
+        {
+            byId.put(rec.getBossId(), rec);
+        }
+
+        List<RoutingAlgorithm.BossRecommendation> ordered = new ArrayList<>(recommendations.size());
+        for (int bossId : current.bossIds)
+        {
+            ordered.add(byId.get(bossId));
+        }
+        ordered.addAll(recommendations.subList(n, recommendations.size()));
+        return ordered;
+    }
+
+    private void build(String key, List<RoutingAlgorithm.BossRecommendation> top)
+    {
+        long start = System.nanoTime();
+
+        // The best recommendation always stays first. If it has no location, the located rest
+        // are routed after it from the best of them. Other bosses without a location keep their
+        // rank and go after the routed ones.
+        RoutingAlgorithm.BossRecommendation first = top.get(0);
+        boolean firstLocated = indexByBoss.containsKey(first.getBossName());
+        List<RoutingAlgorithm.BossRecommendation> located = new ArrayList<>();
+        List<RoutingAlgorithm.BossRecommendation> unlocated = new ArrayList<>();
+        for (RoutingAlgorithm.BossRecommendation rec : top.subList(1, top.size()))
+        {
+            (indexByBoss.containsKey(rec.getBossName()) ? located : unlocated).add(rec);
+        }
+        if (firstLocated)
+        {
+            located.add(0, first);
+        }
+
+        int[] nodes = new int[located.size()];
+        for (int i = 0; i < nodes.length; i++)
+        {
+            nodes[i] = indexByBoss.get(located.get(i).getBossName());
+        }
+
+        int[] tour = nearestNeighbour(nodes);
+        int passes = twoOpt(nodes, tour, start + ROUTE_BUDGET_NANOS);
+
+        int[] bossIds = new int[top.size()];
+        int i = 0;
+        if (!firstLocated)
+        {
+            bossIds[i++] = first.getBossId();
+        }
+        for (int stop : tour)
+        {
+            bossIds[i++] = located.get(stop).getBossId();
+        }
+        for (RoutingAlgorithm.BossRecommendation rec : unlocated)
+        {
+            bossIds[i++] = rec.getBossId();
+        }
+
+        route.set(new Route(key, bossIds));
+        pendingKey.compareAndSet(key, null);
+
+        log.debug("Built travel route over {} bosses ({}s, {} 2-opt passes) in {}us",
+                nodes.length, length(nodes, tour), passes, (System.nanoTime() - start) / 1000);
+        if (executor != null)
+        {
+            onRouteReady.run();
+        }
+    }
+
+    /**
+     * Greedy path starting from the highest-ranked located boss, which stays first.
+     */
+    private int[] nearestNeighbour(int[] nodes)
+    {
+        int n = nodes.length;
+        int[] tour = new int[n];
+        boolean[] visited = new boolean[n];
+        if (n == 0)
+        {
+            return tour;
+        }
+
+        visited[0] = true;
+        for (int step = 1; step < n; step++)
+        {
+            int from = nodes[tour[step - 1]];
+            int next = -1;
+            for (int j = 0; j < n; j++)
+            {
+                if (!visited[j] && (next < 0 || cost(from, nodes[j]) < cost(from, nodes[next])))
+                {
+                    next = j;
+                }
+            }
+            visited[next] = true;
+            tour[step] = next;
+        }
+        return tour;
+    }
+
+    /**
+     * Reverse segments of the open path while that shortens it. The first stop is fixed.
+     * @return how many improving passes ran before converging or running out of time
+     */
+    private int twoOpt(int[] nodes, int[] tour, long deadline)
+    {
+        int n = tour.length;
+        int passes = 0;
+        boolean improved = true;
+
+        while (improved && System.nanoTime() < deadline)
+        {
+            improved = false;
+            passes++;
+
+            for (int i = 1; i < n - 1; i++)
+            {
+                for (int j = i + 1; j < n; j++)
+                {
+                    // Path a-b ... c-d becomes a-c ... b-d; d is absent at the open end
+                    int a = nodes[tour[i - 1]];
+                    int b = nodes[tour[i]];
+                    int c = nodes[tour[j]];
+                    int before = cost(a, b);
+                    int after = cost(a, c);
+                    if (j + 1 < n)
+                    {
+                        int d = nodes[tour[j + 1]];
+                        before += cost(c, d);
+                        after += cost(b, d);
+                    }
+
+                    if (after < before)
+                    {
+                        reverse(tour, i, j);
+                        improved = true;
+                    }
+                }
+            }
+        }
+        return passes;
+    }
+
+    private static void reverse(int[] tour, int from, int to)
+    {
+        while (from < to)
+        {
+            int swap = tour[from];
+            tour[from++] = tour[to];
+            tour[to--] = swap;
+        }
+    }
+
+    private int cost(int from, int to)
+    {
+        int d = distance[from][to];
+        return d < 0 ? Integer.MAX_VALUE / 4 : d;
+    }
+
+    private int length(int[] nodes, int[] tour)
+    {
+        int total = 0;
+        for (int i = 1; i < tour.length; i++)
+        {
+            total += cost(nodes[tour[i - 1]], nodes[tour[i]]);
+        }
+        return total;
+    }
+
+    private static String key(List<RoutingAlgorithm.BossRecommendation> top)
+    {
+        int[] ids = top.stream().mapToInt(RoutingAlgorithm.BossRecommendation::getBossId).toArray();
+        // Route depends on which bosses and which one is first, not the order of the rest
+        int first = ids[0];
+        Arrays.sort(ids);
+        return first + ":" + Arrays.toString(ids);
+    }
+
+    private synchronized boolean ensureLoaded()
+    {
+        if (distance != null)
+        {
+            return distance.length > 0;
+        }
+
+        indexByBoss = new HashMap<>();
+        List<int[]> rows = new ArrayList<>();
+
+        try (InputStream in = TravelRouter.class.getResourceAsStream(MATRIX_RESOURCE))
+        {
+            if (in == null)
+            {
+                log.warn("No travel matrix in jar - travel-aware routing disabled");
+                distance = new int[0][];
+                return false;
+            }
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                if (line.isEmpty() || line.startsWith("#"))
+                {
+                    continue;
+                }
+
+                String[] parts = line.split("\t");
+                int[] row = new int[parts.length - 1];
+                for (int i = 1; i < parts.length; i++)
+                {
+                    row[i - 1] = Integer.parseInt(parts[i]);
+                }
+                indexByBoss.put(parts[0], rows.size());
+                rows.add(row);
+            }
+        }
+        catch (IOException | NumberFormatException e)
+        {
+            log.error("Failed to read travel matrix", e);
+            rows.clear();
+            indexByBoss.clear();
+        }
+
+        distance = rows.toArray(new int[0][]);
+        log.info("Loaded travel matrix for {} bosses", distance.length);
+        return distance.length > 0;
+    }
+}
@@ -0,0 +1,337 @@
+package com.CAHelper;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Splits one boss's incomplete tasks into the fewest trips that can each be done
+ * in one go. Tasks that can't share a trip (a speed run under a restriction, a
+ * group task with a solo one) are edges of a conflict graph, and trips are its colours.
+ * Small graphs are coloured exactly; larger ones fall back to DSatur.
+ */
+public class TripPlan
+{
+    // Exact search is exponential in the worst case; boss task lists are well under this
+    private static final int EXACT_LIMIT = 32;
+    private static final int EXACT_NODE_BUDGET = 200_000;
+
+    @Value
+    public static class Trip
+    {
+        int number;
+        List<RoutingAlgorithm.CombatAchievement> tasks;
+        int points;
+    }
+
+    private final List<Trip> trips;
+
+    private TripPlan(List<Trip> trips)
+    {
+        this.trips = trips;
+    }
+
+    public static TripPlan build(List<RoutingAlgorithm.CombatAchievement> tasks)
+    {
+        List<RoutingAlgorithm.CombatAchievement> incomplete = new ArrayList<>();
+        for (RoutingAlgorithm.CombatAchievement task : tasks)
+        {
+            if (!task.isCompleted())
+            {
+                incomplete.add(task);
+            }
+        }
+
+        int n = incomplete.size();
+        if (n == 0)
+        {
+            return new TripPlan(Collections.emptyList());
+        }
+
+        long[] adjacency = new long[n];
+        boolean[][] conflicts = new boolean[n][n];
+        for (int i = 0; i < n; i++)
+        {
+            for (int j = i + 1; j < n; j++)
+            {
+                if (conflicts(incomplete.get(i), incomplete.get(j)))
+                {
+                    conflicts[i][j] = conflicts[j][i] = true;
+                    if (n <= EXACT_LIMIT)
+                    {
+                        adjacency[i] |= 1L << j;
+                        adjacency[j] |= 1L << i;
+                    }
+                }
+            }
+        }
+
+        int[] colours = dsatur(conflicts);
+        if (n <= EXACT_LIMIT)
+        {
+            int[] exact = new ExactColouring(adjacency, colourCount(colours)).solve();
+            if (exact != null)
+            {
+                colours = exact;
+            }
+        }
+
+        return new TripPlan(toTrips(incomplete, colours));
+    }
+
+    /**
+     * Whether two tasks can't be attempted on the same trip.
+     */
+    static boolean conflicts(RoutingAlgorithm.CombatAchievement a, RoutingAlgorithm.CombatAchievement b)
+    {
+        RoutingAlgorithm.TaskType typeA = a.getType();
+        RoutingAlgorithm.TaskType typeB = b.getType();
+
+        // Restrictions slow the kill down
+        if ((typeA == RoutingAlgorithm.TaskType.SPEED && typeB == RoutingAlgorithm.TaskType.RESTRICTION)
+                || (typeA == RoutingAlgorithm.TaskType.RESTRICTION && typeB == RoutingAlgorithm.TaskType.SPEED))
+        {
+            return true;
+        }
+
+        return (isGroup(a) && isSolo(b)) || (isSolo(a) && isGroup(b));
+    }
+
+    private static boolean isGroup(RoutingAlgorithm.CombatAchievement task)
+    {
+        return task.getType() == RoutingAlgorithm.TaskType.GROUPSIZE && !isSolo(task);
+    }
+
+    private static boolean isSolo(RoutingAlgorithm.CombatAchievement task)
+    {
+        String text = (task.getName() + " " + (task.getDescription() != null ? task.getDescription() : "")).toLowerCase();
+        return text.contains("solo");
+    }
+
+    /**
+     * Greedy colouring: always colour the vertex with the most differently coloured neighbours.
+     */
+    private static int[] dsatur(boolean[][] conflicts)
+    {
+        int n = conflicts.length;
+        int[] colours = new int[n];
+        Arrays.fill(colours, -1);
+
+        int[] degree = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            for (int j = 0; j < n; j++)
+            {
+                if (conflicts[i][j])
+                {
+                    degree[i]++;
+                }
+            }
+        }
+
+        for (int step = 0; step < n; step++)
+        {
+            int pick = -1;
+            int pickSaturation = -1;
+            for (int v = 0; v < n; v++)
+            {
+                if (colours[v] >= 0)
+                {
+                    continue;
+                }
+
+                int saturation = saturation(conflicts, colours, v);
+                if (saturation > pickSaturation || (saturation == pickSaturation && degree[v] > degree[pick]))
+                {
+                    pick = v;
+                    pickSaturation = saturation;
+                }
+            }
+
+            colours[pick] = lowestFreeColour(conflicts, colours, pick);
+        }
+
+        return colours;
+    }
+
+    private static int saturation(boolean[][] conflicts, int[] colours, int v)
+    {
+        boolean[] seen = new boolean[colours.length];
+        int count = 0;
+        for (int u = 0; u < colours.length; u++)
+        {
+            if (conflicts[v][u] && colours[u] >= 0 && !seen[colours[u]])
+            {
+                seen[colours[u]] = true;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int lowestFreeColour(boolean[][] conflicts, int[] colours, int v)
+    {
+        for (int c = 0; ; c++)
+        {
+            boolean used = false;
+            for (int u = 0; u < colours.length && !used; u++)
+            {
+                used = conflicts[v][u] && colours[u] == c;
+            }
+            if (!used)
+            {
+                return c;
+            }
+        }
+    }
+
+    private static int colourCount(int[] colours)
+    {
+        int max = -1;
+        for (int c : colours)
+        {
+            max = Math.max(max, c);
+        }
+        return max + 1;
+    }
+
+    /**
+     * Branch and bound over vertices in degree order, looking for a colouring
+     * with fewer colours than the DSatur bound.
+     */
+    private static class ExactColouring
+    {
+        private final long[] adjacency;
+        private final int[] order;
+        private final int[] colours;
+        private int[] best;
+        private int bestCount;
+        private int nodes = 0;
+
+        ExactColouring(long[] adjacency, int upperBound)
+        {
+            this.adjacency = adjacency;
+            this.bestCount = upperBound;
+            this.colours = new int[adjacency.length];
+
+            // Most constrained first prunes earliest
+            Integer[] byDegree = new Integer[adjacency.length];
+            for (int i = 0; i < byDegree.length; i++)
+            {
+                byDegree[i] = i;
+            }
+            Arrays.sort(byDegree, (a, b) -> Long.bitCount(adjacency[b]) - Long.bitCount(adjacency[a]));
+            this.order = new int[byDegree.length];
+            for (int i = 0; i < byDegree.length; i++)
+            {
+                order[i] = byDegree[i];
+            }
+        }
+
+        /**
+         * @return a colouring with fewer colours than the bound, or null if there is none (or the budget ran out)
+         */
+        int[] solve()
+        {
+            search(0, 0);
+            return best;
+        }
+
+        private void search(int index, int used)
+        {
+            if (used >= bestCount || ++nodes > EXACT_NODE_BUDGET)
+            {
+                return;
+            }
+
+            if (index == order.length)
+            {
+                best = colours.clone();
+                bestCount = used;
+                return;
+            }
+
+            int v = order[index];
+            // A vertex may take any existing colour or open exactly one new one (symmetry breaking)
+            for (int c = 0; c <= used; c++)
+            {
+                if (c == used && used + 1 >= bestCount)
+                {
+                    break; // a new colour can't beat the best found
+                }
+
+                if (!clashes(v, index, c))
+                {
+                    colours[v] = c;
+                    search(index + 1, Math.max(used, c + 1));
+                }
+            }
+        }
+
+        private boolean clashes(int v, int index, int colour)
+        {
+            for (int i = 0; i < index; i++)
+            {
+                int u = order[i];
+                if (colours[u] == colour && (adjacency[v] & (1L << u)) != 0)
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static List<Trip> toTrips(List<RoutingAlgorithm.CombatAchievement> tasks, int[] colours)
+    {
+        int count = colourCount(colours);
+        List<List<RoutingAlgorithm.CombatAchievement>> byColour = new ArrayList<>(count);
+        for (int c = 0; c < count; c++)
+        {
+            byColour.add(new ArrayList<>());
+        }
+        for (int i = 0; i < tasks.size(); i++)
+        {
+            byColour.get(colours[i]).add(tasks.get(i));
+        }
+
+        // Biggest payoff first; within a trip, easiest first
+        byColour.sort(Comparator.comparingInt(TripPlan::points).reversed());
+
+        List<Trip> trips = new ArrayList<>(count);
+        for (List<RoutingAlgorithm.CombatAchievement> group : byColour)
+        {
+            group.sort(Comparator.comparing(RoutingAlgorithm.CombatAchievement::getDifficulty)
+                    .thenComparing(RoutingAlgorithm.CombatAchievement::getName));
+            trips.add(new Trip(trips.size() + 1, Collections.unmodifiableList(group), points(group)));
+        }
+        return Collections.unmodifiableList(trips);
+    }
+
+    private static int points(List<RoutingAlgorithm.CombatAchievement> tasks)
+    {
+        int points = 0;
+        for (RoutingAlgorithm.CombatAchievement task : tasks)
+        {
+            points += task.getPoints();
+        }
+        return points;
+    }
+
+    /**
+     * Trips in the order they should be done.
+     */
+    public List<Trip> getTrips()
+    {
+        return trips;
+    }
+
+    public int getTripCount()
+    {
+        return trips.size();
+    }
+}
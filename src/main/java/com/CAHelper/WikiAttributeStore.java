@@ -0,0 +1,279 @@
+package com.CAHelper;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Wiki task attributes held as columns indexed by task ID (the wiki's data-ca-task-id).
+ * Kept apart from the player's completion state, so the global completion rate survives enrichment.
+ */
+public class WikiAttributeStore
+{
+    private static final RoutingAlgorithm.TaskType[] TASK_TYPES = RoutingAlgorithm.TaskType.values();
+    private static final byte NO_TYPE = -1;
+
+    private final float[] completionRate;
+    private final byte[] type;
+    private final int[] bossId;
+    private final String[] names;
+
+    // All descriptions packed into one string: descriptions[descStart[i] .. descStart[i + 1])
+    private final String descriptions;
+    private final int[] descStart;
+
+    private int size = 0;
+
+    private WikiAttributeStore(float[] completionRate, byte[] type, int[] bossId, String[] names,
+                               String descriptions, int[] descStart)
+    {
+        this.completionRate = completionRate;
+        this.type = type;
+        this.bossId = bossId;
+        this.names = names;
+        this.descriptions = descriptions;
+        this.descStart = descStart;
+    }
+
+    private WikiAttributeStore(int capacity, String descriptions, int[] descStart)
+    {
+        this(newCompletionColumn(capacity, 0), newTypeColumn(capacity, 0), newBossColumn(capacity, 0),
+                new String[capacity], descriptions, descStart);
+    }
+
+    public static WikiAttributeStore empty()
+    {
+        return new WikiAttributeStore(0, "", new int[1]);
+    }
+
+    /**
+     * Build the columns from parsed wiki rows, interning each monster once.
+     */
+    public static WikiAttributeStore build(List<RoutingAlgorithm.CombatAchievement> rows, BossInterner bossInterner)
+    {
+        int capacity = 0;
+        for (RoutingAlgorithm.CombatAchievement row : rows)
+        {
+            capacity = Math.max(capacity, row.getId() + 1);
+        }
+
+        // Pack descriptions in task ID order so each one is a contiguous slice
+        String[] descById = new String[capacity];
+        for (RoutingAlgorithm.CombatAchievement row : rows)
+        {
+            if (row.getId() >= 0 && descById[row.getId()] == null)
+            {
+                descById[row.getId()] = row.getDescription() != null ? row.getDescription() : "";
+            }
+        }
+
+        int[] descStart = new int[capacity + 1];
+        WikiAttributeStore store = new WikiAttributeStore(capacity, pack(descById, descStart), descStart);
+        for (RoutingAlgorithm.CombatAchievement row : rows)
+        {
+            int id = row.getId();
+            if (id < 0 || store.names[id] != null)
+            {
+                continue; // keep the first row for duplicate IDs
+            }
+
+            store.set(id, row, bossInterner);
+            store.size++;
+        }
+
+        return store;
+    }
+
+    /**
+     * Copy-on-write update: a new store with only the delta's records changed.
+     * The numeric columns are copied and patched in place; descriptions are only
+     * repacked when one of them actually changed.
+     */
+    public WikiAttributeStore patch(WikiDelta delta, BossInterner bossInterner)
+    {
+        int capacity = names.length;
+        for (RoutingAlgorithm.CombatAchievement row : delta.getChanged())
+        {
+            capacity = Math.max(capacity, row.getId() + 1);
+        }
+
+        boolean descriptionsChanged = capacity != names.length || delta.getRemoved().length > 0;
+        for (RoutingAlgorithm.CombatAchievement row : delta.getChanged())
+        {
+            String description = row.getDescription() != null ? row.getDescription() : "";
+            descriptionsChanged |= !description.equals(getDescription(row.getId()));
+        }
+
+        String packed = descriptions;
+        int[] starts = descStart;
+        if (descriptionsChanged)
+        {
+            String[] descById = new String[capacity];
+            for (int id = 0; id < names.length; id++)
+            {
+                descById[id] = getDescription(id);
+            }
+            for (int id : delta.getRemoved())
+            {
+                if (id >= 0 && id < capacity)
+                {
+                    descById[id] = null;
+                }
+            }
+            for (RoutingAlgorithm.CombatAchievement row : delta.getChanged())
+            {
+                if (row.getId() >= 0)
+                {
+                    descById[row.getId()] = row.getDescription() != null ? row.getDescription() : "";
+                }
+            }
+
+            starts = new int[capacity + 1];
+            packed = pack(descById, starts);
+        }
+
+        WikiAttributeStore patched = new WikiAttributeStore(
+                copyOf(completionRate, capacity),
+                copyOf(type, capacity),
+                copyOf(bossId, capacity),
+                Arrays.copyOf(names, capacity),
+                packed,
+                starts);
+        patched.size = size;
+
+        for (int id : delta.getRemoved())
+        {
+            if (patched.contains(id))
+            {
+                patched.completionRate[id] = Float.NaN;
+                patched.type[id] = NO_TYPE;
+                patched.bossId[id] = BossDictionary.UNKNOWN;
+                patched.names[id] = null;
+                patched.size--;
+            }
+        }
+
+        for (RoutingAlgorithm.CombatAchievement row : delta.getChanged())
+        {
+            int id = row.getId();
+            if (id < 0)
+            {
+                continue;
+            }
+
+            if (!patched.contains(id))
+            {
+                patched.size++;
+            }
+            patched.set(id, row, bossInterner);
+        }
+
+        return patched;
+    }
+
+    private void set(int id, RoutingAlgorithm.CombatAchievement row, BossInterner bossInterner)
+    {
+        completionRate[id] = (float) row.getCompletionRate();
+        type[id] = row.getType() != null ? (byte) row.getType().ordinal() : NO_TYPE;
+        bossId[id] = bossInterner.intern(row.getMonster());
+        names[id] = row.getName();
+    }
+
+    /**
+     * Concatenate descriptions in ID order, filling starts with each one's offset.
+     */
+    private static String pack(String[] descById, int[] starts)
+    {
+        StringBuilder packed = new StringBuilder();
+        for (int id = 0; id < descById.length; id++)
+        {
+            starts[id] = packed.length();
+            if (descById[id] != null)
+            {
+                packed.append(descById[id]);
+            }
+        }
+        starts[descById.length] = packed.length();
+        return packed.toString();
+    }
+
+    private static float[] newCompletionColumn(int capacity, int from)
+    {
+        float[] column = new float[capacity];
+        Arrays.fill(column, from, capacity, Float.NaN);
+        return column;
+    }
+
+    private static byte[] newTypeColumn(int capacity, int from)
+    {
+        byte[] column = new byte[capacity];
+        Arrays.fill(column, from, capacity, NO_TYPE);
+        return column;
+    }
+
+    private static int[] newBossColumn(int capacity, int from)
+    {
+        int[] column = new int[capacity];
+        Arrays.fill(column, from, capacity, BossDictionary.UNKNOWN);
+        return column;
+    }
+
+    private static float[] copyOf(float[] column, int capacity)
+    {
+        float[] copy = newCompletionColumn(capacity, column.length);
+        System.arraycopy(column, 0, copy, 0, column.length);
+        return copy;
+    }
+
+    private static byte[] copyOf(byte[] column, int capacity)
+    {
+        byte[] copy = newTypeColumn(capacity, column.length);
+        System.arraycopy(column, 0, copy, 0, column.length);
+        return copy;
+    }
+
+    private static int[] copyOf(int[] column, int capacity)
+    {
+        int[] copy = newBossColumn(capacity, column.length);
+        System.arraycopy(column, 0, copy, 0, column.length);
+        return copy;
+    }
+
+    public boolean contains(int taskId)
+    {
+        return taskId >= 0 && taskId < names.length && names[taskId] != null;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Share of players that have completed the task, 0-100, or NaN when unknown.
+     */
+    public float getCompletionRate(int taskId)
+    {
+        return contains(taskId) ? completionRate[taskId] : Float.NaN;
+    }
+
+    public RoutingAlgorithm.TaskType getType(int taskId)
+    {
+        byte ordinal = contains(taskId) ? type[taskId] : NO_TYPE;
+        return ordinal == NO_TYPE ? null : TASK_TYPES[ordinal];
+    }
+
+    public int getBossId(int taskId)
+    {
+        return contains(taskId) ? bossId[taskId] : BossDictionary.UNKNOWN;
+    }
+
+    public String getName(int taskId)
+    {
+        return contains(taskId) ? names[taskId] : null;
+    }
+
+    public String getDescription(int taskId)
+    {
+        return contains(taskId) ? descriptions.substring(descStart[taskId], descStart[taskId + 1]) : null;
+    }
+}
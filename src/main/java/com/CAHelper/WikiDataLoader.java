@@ -1,9 +1,19 @@
 package com.CAHelper;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.RuneLite;
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
 import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import org.jsoup.Jsoup;
@@ -12,9 +22,17 @@ import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -23,22 +41,114 @@ import java.util.regex.Pattern;
 @Singleton
 public class WikiDataLoader
 {
-    private static final String WIKI_API_URL = "https://oldschool.runescape.wiki/api.php";
+    public static final String DEFAULT_WIKI_API_URL = "https://oldschool.runescape.wiki/api.php";
+    public static final String WIKI_API_URL_NAME = "caHelperWikiApiUrl";
     private static final String PAGE_TITLE = "Combat Achievements/All tasks";
+    private static final String BUNDLED_SNAPSHOT = "ca-wiki-snapshot.tsv"; // generated by bundleWikiSnapshot
+
+    // Only the columns the plugin uses, in one request
+    private static final String BUCKET_QUERY = "bucket('combat_achievement')"
+            + ".select('id','monster','name','task','type','tier','completion')"
+            + ".limit(2000).run()";
 
     private static final Pattern COMPLETION_PATTERN = Pattern.compile("([0-9.]+)%");
+    private static final Pattern LEADING_WORD_PATTERN = Pattern.compile("\\s*([A-Za-z]+)");
+
+    // Built once; rows are looked up by key instead of scanning every enum constant
+    private static final Map<String, RoutingAlgorithm.Difficulty> DIFFICULTY_BY_NAME = new HashMap<>();
+    private static final RoutingAlgorithm.Difficulty[] DIFFICULTIES_LONGEST_FIRST = RoutingAlgorithm.Difficulty.values();
+    private static final Map<String, RoutingAlgorithm.TaskType> TASK_TYPE_BY_WIKI_NAME = new HashMap<>();
+
+    static
+    {
+        for (RoutingAlgorithm.Difficulty difficulty : RoutingAlgorithm.Difficulty.values())
+        {
+            DIFFICULTY_BY_NAME.put(difficulty.name().toLowerCase(), difficulty);
+        }
+        Arrays.sort(DIFFICULTIES_LONGEST_FIRST, (a, b) -> Integer.compare(b.name().length(), a.name().length()));
+
+        for (RoutingAlgorithm.TaskType type : RoutingAlgorithm.TaskType.values())
+        {
+            TASK_TYPE_BY_WIKI_NAME.put(type.getWikiName().toLowerCase(), type);
+        }
+    }
+
+    // Shared by every wiki request so a boss metadata batch can't flood the wiki
+    static final int MAX_CONCURRENT_REQUESTS = 4;
+    private static final String HTTP_CACHE_DIR = "ca-helper-http";
+    private static final long HTTP_CACHE_SIZE = 20 * 1024 * 1024;
+    private static final int METADATA_MAX_AGE_DAYS = 7;
 
     @Inject
     private Gson gson;
 
     @Inject
-    private okhttp3.OkHttpClient okHttpClient;
+    private OkHttpClient okHttpClient;
+
+    // Overridable so a local stand-in server can serve the wiki API
+    @Inject
+    @Named(WIKI_API_URL_NAME)
+    private HttpUrl wikiApiUrl;
+
+    private final File httpCacheDir;
+    private OkHttpClient wikiClient;
+
+    /**
+     * Where task rows are fetched from. Both return the same rows; the structured
+     * query is a fraction of the size and needs no DOM.
+     */
+    public enum Source
+    {
+        STRUCTURED, // bucket query API, streamed JSON
+        HTML        // rendered task table, parsed with Jsoup
+    }
+
+    // The source that worked last; tried first next time
+    private volatile Source preferredSource = Source.STRUCTURED;
+
+    public WikiDataLoader()
+    {
+        httpCacheDir = new File(RuneLite.RUNELITE_DIR, HTTP_CACHE_DIR);
+    }
+
+    WikiDataLoader(Gson gson, OkHttpClient okHttpClient, HttpUrl wikiApiUrl, File httpCacheDir)
+    {
+        this.gson = gson;
+        this.okHttpClient = okHttpClient;
+        this.wikiApiUrl = wikiApiUrl;
+        this.httpCacheDir = httpCacheDir;
+    }
 
     public List<RoutingAlgorithm.CombatAchievement> loadAllAchievements() //
+    {
+        Source first = preferredSource;
+        Source second = first == Source.STRUCTURED ? Source.HTML : Source.STRUCTURED;
+
+        List<RoutingAlgorithm.CombatAchievement> achievements = loadFrom(first);
+        if (!achievements.isEmpty())
+        {
+            return achievements;
+        }
+
+        log.warn("No tasks from {} source - falling back to {}", first, second);
+        achievements = loadFrom(second);
+        if (!achievements.isEmpty())
+        {
+            preferredSource = second;
+        }
+        return achievements;
+    }
+
+    private List<RoutingAlgorithm.CombatAchievement> loadFrom(Source source)
     {
         try
         {
-            log.info("Fetching combat achievements from Wiki API...");
+            log.info("Fetching combat achievements from Wiki API ({})...", source);
+
+            if (source == Source.STRUCTURED)
+            {
+                return fetchStructured();
+            }
 
             String html = fetchRenderedHtml(PAGE_TITLE);
             if (html == null || html.isEmpty())
@@ -51,14 +161,366 @@ public class WikiDataLoader
         }
         catch (Exception e)
         {
-            log.error("Error loading achievements from Wiki", e);
+            log.error("Error loading achievements from Wiki ({})", source, e);
             return Collections.emptyList();
         }
     }
 
+    /**
+     * Ask the bucket API for just the task columns, then walk the JSON tokens
+     * straight into rows without building a tree.
+     */
+    private List<RoutingAlgorithm.CombatAchievement> fetchStructured() throws IOException
+    {
+        HttpUrl url = wikiApiUrl.newBuilder()
+                .addQueryParameter("action", "bucket")
+                .addQueryParameter("format", "json")
+                .addQueryParameter("query", BUCKET_QUERY)
+                .build();
+
+        log.info("Fetching URL: {}", url);
+
+        Request request = new Request.Builder()
+                .url(url)
+                .header("User-Agent", "RuneLite-CAHelper/1.0")
+                .build();
+
+        try (Response response = getWikiClient().newCall(request).execute())
+        {
+            if (!response.isSuccessful())
+            {
+                log.error("Failed to fetch bucket query: {}", response.code());
+                return Collections.emptyList();
+            }
+
+            try (JsonReader reader = new JsonReader(response.body().charStream()))
+            {
+                return readBucketResponse(reader);
+            }
+        }
+    }
+
+    private List<RoutingAlgorithm.CombatAchievement> readBucketResponse(JsonReader reader) throws IOException
+    {
+        List<RoutingAlgorithm.CombatAchievement> achievements = new ArrayList<>();
+
+        reader.beginObject();
+        while (reader.hasNext())
+        {
+            String key = reader.nextName();
+            if (!key.equals("bucket") || reader.peek() != JsonToken.BEGIN_ARRAY)
+            {
+                // "error" objects and anything else we don't need
+                reader.skipValue();
+                continue;
+            }
+
+            reader.beginArray();
+            while (reader.hasNext())
+            {
+                String taskId = null;
+                // Same column order as the rendered table, so rows go through toAchievement
+                String[] fields = {"", "", "", "", "", ""};
+
+                reader.beginObject();
+                while (reader.hasNext())
+                {
+                    String field = reader.nextName();
+                    String value = readScalar(reader);
+                    if (value == null)
+                    {
+                        continue;
+                    }
+
+                    switch (field)
+                    {
+                        case "id": taskId = value; break;
+                        case "monster": fields[0] = value; break;
+                        case "name": fields[1] = value; break;
+                        case "task": fields[2] = value; break;
+                        case "type": fields[3] = value; break;
+                        case "tier": fields[4] = value; break;
+                        // Bare number here; parseCompletionRate expects the table's "12.3%"
+                        case "completion": fields[5] = value.endsWith("%") ? value : value + "%"; break;
+                        default: break;
+                    }
+                }
+                reader.endObject();
+
+                if (taskId == null)
+                {
+                    continue;
+                }
+
+                try
+                {
+                    RoutingAlgorithm.CombatAchievement ca = toAchievement(taskId, fields);
+                    if (ca != null)
+                    {
+                        achievements.add(ca);
+                    }
+                }
+                catch (NumberFormatException e)
+                {
+                    log.debug("Skipping bucket row with bad ID: {}", taskId);
+                }
+            }
+            reader.endArray();
+        }
+        reader.endObject();
+
+        log.info("Parsed {} achievements from bucket query", achievements.size());
+        return achievements;
+    }
+
+    /**
+     * Read a field value as a string. Multi-valued fields come back as arrays; the first value is used.
+     * @return null for a JSON null or an empty array
+     */
+    private static String readScalar(JsonReader reader) throws IOException
+    {
+        switch (reader.peek())
+        {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case BEGIN_ARRAY:
+                String first = null;
+                reader.beginArray();
+                while (reader.hasNext())
+                {
+                    if (first == null && reader.peek() != JsonToken.BEGIN_ARRAY && reader.peek() != JsonToken.BEGIN_OBJECT)
+                    {
+                        first = readScalar(reader);
+                    }
+                    else
+                    {
+                        reader.skipValue();
+                    }
+                }
+                reader.endArray();
+                return first;
+            case BEGIN_OBJECT:
+                reader.skipValue();
+                return null;
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            default:
+                // Strings and numbers both read as strings
+                return reader.nextString();
+        }
+    }
+
+    /**
+     * Load the wiki snapshot bundled into the jar at build time (see bundleWikiSnapshot in build.gradle).
+     * Already split into columns, so no HTML parse or network round trip is needed.
+     * @return the bundled rows, or an empty list if the jar carries none
+     */
+    public List<RoutingAlgorithm.CombatAchievement> loadBundledSnapshot()
+    {
+        List<RoutingAlgorithm.CombatAchievement> achievements = new ArrayList<>();
+
+        try (InputStream in = WikiDataLoader.class.getResourceAsStream(BUNDLED_SNAPSHOT))
+        {
+            if (in == null)
+            {
+                log.debug("No bundled wiki snapshot in jar");
+                return achievements;
+            }
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                if (line.isEmpty() || line.startsWith("#"))
+                {
+                    continue;
+                }
+
+                // id, then the six table columns in page order
+                String[] parts = line.split("\t", -1);
+                if (parts.length < 7)
+                {
+                    log.debug("Skipping malformed bundled row: {}", line);
+                    continue;
+                }
+
+                try
+                {
+                    RoutingAlgorithm.CombatAchievement ca = toAchievement(parts[0], Arrays.copyOfRange(parts, 1, 7));
+                    if (ca != null)
+                    {
+                        achievements.add(ca);
+                    }
+                }
+                catch (NumberFormatException e)
+                {
+                    log.warn("Bad task ID in bundled snapshot: {}", parts[0]);
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            log.error("Failed to read bundled wiki snapshot", e);
+            return Collections.emptyList();
+        }
+
+        log.info("Loaded {} achievements from bundled snapshot", achievements.size());
+        return achievements;
+    }
+
+    /**
+     * Fetch the lead section and categories of each boss's wiki page, at most
+     * {@value #MAX_CONCURRENT_REQUESTS} at a time. Responses are kept in an on-disk
+     * HTTP cache, so later runs only hit the network once a page's cache entry expires.
+     * @return metadata by boss name; bosses whose page failed to load are left out
+     */
+    public CompletableFuture<Map<String, BossMetadata>> fetchBossMetadata(Collection<String> bossNames)
+    {
+        OkHttpClient client = getWikiClient();
+        List<CompletableFuture<BossMetadata>> pages = new ArrayList<>(bossNames.size());
+
+        for (String bossName : bossNames)
+        {
+            HttpUrl url = wikiApiUrl.newBuilder()
+                    .addQueryParameter("action", "parse")
+                    .addQueryParameter("page", bossName)
+                    .addQueryParameter("prop", "text|categories")
+                    .addQueryParameter("section", "0")
+                    .addQueryParameter("redirects", "1")
+                    .addQueryParameter("format", "json")
+                    .addQueryParameter("formatversion", "2")
+                    // Ask the wiki for a cacheable response so the HTTP cache keeps it
+                    .addQueryParameter("maxage", String.valueOf(TimeUnit.DAYS.toSeconds(METADATA_MAX_AGE_DAYS)))
+                    .addQueryParameter("smaxage", String.valueOf(TimeUnit.DAYS.toSeconds(METADATA_MAX_AGE_DAYS)))
+                    .build();
+
+            Request request = new Request.Builder()
+                    .url(url)
+                    .header("User-Agent", "RuneLite-CAHelper/1.0")
+                    .cacheControl(new CacheControl.Builder().maxStale(METADATA_MAX_AGE_DAYS, TimeUnit.DAYS).build())
+                    .build();
+
+            CompletableFuture<BossMetadata> page = new CompletableFuture<>();
+            // The dispatcher queues calls past the request limit; nothing blocks here
+            client.newCall(request).enqueue(new Callback()
+            {
+                @Override
+                public void onFailure(Call call, IOException e)
+                {
+                    log.debug("Boss metadata fetch failed for {}: {}", bossName, e.getMessage());
+                    page.complete(null);
+                }
+
+                @Override
+                public void onResponse(Call call, Response response)
+                {
+                    try (Response r = response)
+                    {
+                        page.complete(r.isSuccessful() ? parseBossPage(bossName, r.body().string()) : null);
+                    }
+                    catch (Exception e)
+                    {
+                        log.debug("Could not parse boss page for {}: {}", bossName, e.getMessage());
+                        page.complete(null);
+                    }
+                }
+            });
+            pages.add(page);
+        }
+
+        return CompletableFuture.allOf(pages.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            Map<String, BossMetadata> byName = new LinkedHashMap<>();
+            for (CompletableFuture<BossMetadata> page : pages)
+            {
+                BossMetadata boss = page.join();
+                if (boss != null)
+                {
+                    byName.put(boss.getName(), boss);
+                }
+            }
+            return byName;
+        });
+    }
+
+    private BossMetadata parseBossPage(String bossName, String json)
+    {
+        JsonObject root = gson.fromJson(json, JsonObject.class);
+        if (root == null || !root.has("parse"))
+        {
+            // Missing pages come back as an error object
+            return null;
+        }
+
+        JsonObject parse = root.getAsJsonObject("parse");
+        String html = parse.has("text") ? parse.get("text").getAsString() : "";
+
+        List<String> categories = new ArrayList<>();
+        if (parse.has("categories"))
+        {
+            for (JsonElement category : parse.getAsJsonArray("categories"))
+            {
+                categories.add(category.getAsJsonObject().get("category").getAsString());
+            }
+        }
+
+        return BossMetadata.parse(bossName, html, categories);
+    }
+
+    /**
+     * The client every wiki request goes through: one dispatcher with request
+     * limits and one on-disk cache, derived from RuneLite's shared client.
+     */
+    private synchronized OkHttpClient getWikiClient()
+    {
+        if (wikiClient == null)
+        {
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(MAX_CONCURRENT_REQUESTS);
+            dispatcher.setMaxRequestsPerHost(MAX_CONCURRENT_REQUESTS);
+
+            wikiClient = okHttpClient.newBuilder()
+                    .dispatcher(dispatcher)
+                    .cache(new Cache(httpCacheDir, HTTP_CACHE_SIZE))
+                    .build();
+        }
+        return wikiClient;
+    }
+
+    /**
+     * Cancel queued and running wiki requests and release the client's threads and
+     * cache file handles. The next request builds a new client.
+     */
+    public synchronized void shutDown()
+    {
+        if (wikiClient == null)
+        {
+            return;
+        }
+
+        wikiClient.dispatcher().cancelAll();
+        // The dispatcher and its executor are ours; the connection pool is RuneLite's
+        wikiClient.dispatcher().executorService().shutdown();
+
+        Cache cache = wikiClient.cache();
+        if (cache != null)
+        {
+            try
+            {
+                cache.close();
+            }
+            catch (IOException e)
+            {
+                log.warn("Failed to close wiki HTTP cache", e);
+            }
+        }
+
+        wikiClient = null;
+    }
+
     private String fetchRenderedHtml(String pageTitle) throws IOException
     {
-        HttpUrl url = HttpUrl.parse(WIKI_API_URL).newBuilder()
+        HttpUrl url = wikiApiUrl.newBuilder()
                 .addQueryParameter("action", "parse")
                 .addQueryParameter("page", pageTitle)
                 .addQueryParameter("prop", "text")
@@ -73,7 +535,7 @@ public class WikiDataLoader
                 .header("User-Agent", "RuneLite-CAHelper/1.0")
                 .build();
 
-        try (Response response = okHttpClient.newCall(request).execute())
+        try (Response response = getWikiClient().newCall(request).execute())
         {
             if (!response.isSuccessful())
             {
@@ -99,12 +561,10 @@ public class WikiDataLoader
 
     private List<RoutingAlgorithm.CombatAchievement> parseRenderedHtml(String html)
     {
-        List<RoutingAlgorithm.CombatAchievement> achievements = new ArrayList<>();
-
         if (html == null || html.isEmpty())
         {
             log.error("HTML content is empty");
-            return achievements;
+            return Collections.emptyList();
         }
 
         Document doc = Jsoup.parse(html);
@@ -140,7 +600,7 @@ public class WikiDataLoader
         if (table == null)
         {
             log.error("Could not find any suitable table in rendered HTML");
-            return achievements;
+            return Collections.emptyList();
         }
 
         Elements rows = table.select("tbody > tr");
@@ -153,129 +613,159 @@ public class WikiDataLoader
             log.info("No tbody found, trying direct tr selector: {} rows", rows.size());
         }
 
-        int id = 0;
-
+        // Sequential on purpose: Jsoup makes no thread-safety promise for traversing one
+        // shared Document, and ~600 rows take a few milliseconds
+        List<RoutingAlgorithm.CombatAchievement> achievements = new ArrayList<>(rows.size());
         for (Element row : rows)
         {
-            String taskId = row.attr("data-ca-task-id");
-            if (taskId == null || taskId.isEmpty())
+            RoutingAlgorithm.CombatAchievement ca = parseRow(row);
+            if (ca != null)
             {
-                // Skip rows without task ID (e.g. header rows)
-                continue;
+                achievements.add(ca);
             }
+        }
 
-            Elements cells = row.select("td");
-            if (cells.size() < 6)
-            {
-                log.debug("Skipping incomplete row with {} cells", cells.size());
-                continue;
-            }
+        log.info("Parsed {} achievements from rendered HTML", achievements.size());
 
-            try
-            {
-                // Parse 6-column structure:
-                // 0: Monster/Boss
-                // 1: Task Name
-                // 2: Description
-                // 3: Type (Kill Count, Speed, Mechanical, Perfection, Restriction, Stamina, Group Size)
-                // 4: Difficulty + Points combined (e.g., "Medium (2 pts)")
-                // 5: Completion %
-
-                String monster = cells.get(0).text().trim();
-                String name = cells.get(1).text().trim();
-                String description = cells.get(2).text().trim();
-                String typeText = cells.get(3).text().trim();
-                String difficultyAndPoints = cells.get(4).text().trim();
-                String compRateText = cells.get(5).text().trim();
-
-                if (name.isEmpty() || difficultyAndPoints.isEmpty())
-                {
-                    log.debug("Skipping row with empty name or difficulty");
-                    continue;
-                }
+        if (log.isDebugEnabled())
+        {
+            logBossSummary(achievements);
+        }
 
-                // Parse difficulty and points from combined field
-                RoutingAlgorithm.Difficulty difficulty = parseDifficulty(difficultyAndPoints);
-                double completionRate = parseCompletionRate(compRateText);
-
-                // Parse task type from the type field
-                RoutingAlgorithm.TaskType taskType = parseTaskType(typeText);
-
-                // NEW: Match constructor order (id, name, monster, difficulty, type, completionRate, description, prerequisites)
-                RoutingAlgorithm.CombatAchievement ca = new RoutingAlgorithm.CombatAchievement(
-                        id++,                      // id
-                        name,                      // name
-                        monster,                   // monster (boss name)
-                        difficulty,                // difficulty
-                        taskType,                  // type
-                        completionRate,            // completionRate
-                        description,               // description
-                        Collections.emptyList()    // prerequisiteIds
-                );
+        return achievements;
+    }
 
-                achievements.add(ca);
-                log.debug("Added achievement: {} - {} [{}] ({} pts)", monster, name, taskType, difficulty.getPoints());
-            }
-            catch (Exception e)
+    /**
+     * @return the row's record, or null for header, incomplete or unparseable rows
+     */
+    private RoutingAlgorithm.CombatAchievement parseRow(Element row)
+    {
+        String taskId = row.attr("data-ca-task-id");
+        if (taskId == null || taskId.isEmpty())
+        {
+            // Skip rows without task ID (e.g. header rows)
+            return null;
+        }
+
+        Elements cells = row.select("td");
+        if (cells.size() < 6)
+        {
+            log.debug("Skipping incomplete row with {} cells", cells.size());
+            return null;
+        }
+
+        try
+        {
+            // Parse 6-column structure:
+            // 0: Monster/Boss
+            // 1: Task Name
+            // 2: Description
+            // 3: Type (Kill Count, Speed, Mechanical, Perfection, Restriction, Stamina, Group Size)
+            // 4: Difficulty + Points combined (e.g., "Medium (2 pts)")
+            // 5: Completion %
+            String[] fields = new String[6];
+            for (int i = 0; i < fields.length; i++)
             {
-                log.warn("Failed to parse row: {}", e.getMessage(), e);
+                fields[i] = cells.get(i).text();
             }
-        }
 
-        log.info("Parsed {} achievements from rendered HTML", achievements.size());
+            return toAchievement(taskId, fields);
+        }
+        catch (Exception e)
+        {
+            log.warn("Failed to parse row: {}", e.getMessage(), e);
+            return null;
+        }
+    }
 
-        // ===== DEBUG LOGGING =====
+    private void logBossSummary(List<RoutingAlgorithm.CombatAchievement> achievements)
+    {
         Map<String, List<RoutingAlgorithm.CombatAchievement>> tasksByBoss = achievements.stream()
                 .collect(Collectors.groupingBy(RoutingAlgorithm.CombatAchievement::getMonster));
 
-        log.info("========================================");
-        log.info("=== LOADED TASKS BY BOSS (Top 20) ===");
-        log.info("========================================");
+        log.debug("========================================");
+        log.debug("=== LOADED TASKS BY BOSS (Top 20) ===");
+        log.debug("========================================");
         tasksByBoss.entrySet().stream()
                 .sorted((a, b) -> Integer.compare(b.getValue().size(), a.getValue().size()))
                 .limit(20)
-                .forEach(entry -> {
-                    String boss = entry.getKey();
-                    List<RoutingAlgorithm.CombatAchievement> tasks = entry.getValue();
-                    log.info("  {} ({} tasks)", boss, tasks.size());
-                });
+                .forEach(entry -> log.debug("  {} ({} tasks)", entry.getKey(), entry.getValue().size()));
 
-        log.info("Total unique bosses: {}", tasksByBoss.size());
-        log.info("Total tasks loaded: {}", achievements.size());
-        log.info("========================================");
+        log.debug("Total unique bosses: {}", tasksByBoss.size());
+        log.debug("Total tasks loaded: {}", achievements.size());
+        log.debug("========================================");
+    }
 
-        return achievements;
+    /**
+     * Build a row from the six table columns. Shared by the HTML and bundled snapshot paths.
+     * @return null if the row has no name or difficulty
+     */
+    private RoutingAlgorithm.CombatAchievement toAchievement(String taskId, String[] fields)
+    {
+        String monster = fields[0].trim();
+        String name = fields[1].trim();
+        String description = fields[2].trim();
+        String typeText = fields[3].trim();
+        String difficultyAndPoints = fields[4].trim();
+        String compRateText = fields[5].trim();
+
+        if (name.isEmpty() || difficultyAndPoints.isEmpty())
+        {
+            log.debug("Skipping row with empty name or difficulty");
+            return null;
+        }
+
+        // Parse difficulty and points from combined field
+        RoutingAlgorithm.Difficulty difficulty = parseDifficulty(difficultyAndPoints);
+        double completionRate = parseCompletionRate(compRateText);
+
+        // Parse task type from the type field
+        RoutingAlgorithm.TaskType taskType = parseTaskType(typeText);
+
+        // The wiki's task ID matches the game's, so it joins directly with the cache
+        int id = Integer.parseInt(taskId.trim());
+
+        // NEW: Match constructor order (id, name, monster, bossId, difficulty, type, completionRate, completed, description, prerequisites)
+        RoutingAlgorithm.CombatAchievement ca = new RoutingAlgorithm.CombatAchievement(
+                id,                        // id
+                name,                      // name
+                monster,                   // monster (boss name)
+                -1,                        // bossId (interned on enrichment)
+                difficulty,                // difficulty
+                taskType,                  // type
+                completionRate,            // completionRate
+                false,                     // completed (player state joined later)
+                description,               // description
+                Collections.emptyList()    // prerequisiteIds
+        );
+
+        log.debug("Added achievement: {} - {} [{}] ({} pts)", monster, name, taskType, difficulty.getPoints());
+        return ca;
     }
 
     private RoutingAlgorithm.Difficulty parseDifficulty(String tierText)
     {
         if (tierText == null) return RoutingAlgorithm.Difficulty.EASY;
 
-        String tier = tierText.toLowerCase().trim();
-
-        if (tier.contains("grandmaster"))
+        // "Medium (2 pts)" -> "medium"
+        Matcher matcher = LEADING_WORD_PATTERN.matcher(tierText);
+        if (matcher.lookingAt())
         {
-            return RoutingAlgorithm.Difficulty.GRANDMASTER;
-        }
-        else if (tier.contains("master"))
-        {
-            return RoutingAlgorithm.Difficulty.MASTER;
-        }
-        else if (tier.contains("elite"))
-        {
-            return RoutingAlgorithm.Difficulty.ELITE;
-        }
-        else if (tier.contains("hard"))
-        {
-            return RoutingAlgorithm.Difficulty.HARD;
-        }
-        else if (tier.contains("medium"))
-        {
-            return RoutingAlgorithm.Difficulty.MEDIUM;
+            RoutingAlgorithm.Difficulty difficulty = DIFFICULTY_BY_NAME.get(matcher.group(1).toLowerCase());
+            if (difficulty != null)
+            {
+                return difficulty;
+            }
         }
-        else if (tier.contains("easy"))
+
+        // Unusual formatting; scan for a tier name anywhere (longest first, so "grandmaster" beats "master")
+        String tier = tierText.toLowerCase();
+        for (RoutingAlgorithm.Difficulty difficulty : DIFFICULTIES_LONGEST_FIRST)
         {
-            return RoutingAlgorithm.Difficulty.EASY;
+            if (tier.contains(difficulty.name().toLowerCase()))
+            {
+                return difficulty;
+            }
         }
 
         log.warn("Unknown difficulty tier: {}", tierText);
@@ -296,11 +786,16 @@ public class WikiDataLoader
 
         String normalized = typeText.toLowerCase().trim();
 
-        // Try to match against all TaskType enum values
+        RoutingAlgorithm.TaskType exact = TASK_TYPE_BY_WIKI_NAME.get(normalized);
+        if (exact != null)
+        {
+            return exact;
+        }
+
+        // Extra text around the type name
         for (RoutingAlgorithm.TaskType type : RoutingAlgorithm.TaskType.values())
         {
-            String wikiName = type.getWikiName().toLowerCase();
-            if (normalized.equalsIgnoreCase(wikiName) || normalized.contains(wikiName))
+            if (normalized.contains(type.getWikiName().toLowerCase()))
             {
                 log.debug("Parsed task type: '{}' -> {}", typeText, type);
                 return type;
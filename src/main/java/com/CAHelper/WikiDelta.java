@@ -0,0 +1,115 @@
+package com.CAHelper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Wiki rows that changed between two loads, keyed by task ID (the wiki's data-ca-task-id).
+ */
+public final class WikiDelta
+{
+    private final List<RoutingAlgorithm.CombatAchievement> changed;
+    private final int[] removed;
+
+    private WikiDelta(List<RoutingAlgorithm.CombatAchievement> changed, int[] removed)
+    {
+        this.changed = Collections.unmodifiableList(changed);
+        this.removed = removed;
+    }
+
+    /**
+     * Compare two row lists by task ID. For duplicate IDs the first row wins, as in {@link WikiAttributeStore}.
+     */
+    public static WikiDelta diff(List<RoutingAlgorithm.CombatAchievement> previous, List<RoutingAlgorithm.CombatAchievement> next)
+    {
+        Map<Integer, RoutingAlgorithm.CombatAchievement> previousById = new HashMap<>(previous.size() * 2);
+        for (RoutingAlgorithm.CombatAchievement row : previous)
+        {
+            previousById.putIfAbsent(row.getId(), row);
+        }
+
+        List<RoutingAlgorithm.CombatAchievement> changed = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>(next.size() * 2);
+        for (RoutingAlgorithm.CombatAchievement row : next)
+        {
+            if (!seen.add(row.getId()))
+            {
+                continue;
+            }
+
+            if (!row.equals(previousById.get(row.getId())))
+            {
+                changed.add(row);
+            }
+        }
+
+        int[] removed = previousById.keySet().stream()
+                .filter(id -> !seen.contains(id))
+                .mapToInt(Integer::intValue)
+                .sorted()
+                .toArray();
+
+        return new WikiDelta(changed, removed);
+    }
+
+    public static WikiDelta of(List<RoutingAlgorithm.CombatAchievement> changed, int[] removed)
+    {
+        return new WikiDelta(new ArrayList<>(changed), removed.clone());
+    }
+
+    /**
+     * Apply this delta to a row list, keeping the existing order and appending new IDs.
+     */
+    public List<RoutingAlgorithm.CombatAchievement> applyTo(List<RoutingAlgorithm.CombatAchievement> rows)
+    {
+        Map<Integer, RoutingAlgorithm.CombatAchievement> byId = new LinkedHashMap<>(rows.size() * 2);
+        for (RoutingAlgorithm.CombatAchievement row : rows)
+        {
+            byId.putIfAbsent(row.getId(), row);
+        }
+
+        for (int id : removed)
+        {
+            byId.remove(id);
+        }
+
+        for (RoutingAlgorithm.CombatAchievement row : changed)
+        {
+            byId.put(row.getId(), row);
+        }
+
+        return new ArrayList<>(byId.values());
+    }
+
+    /**
+     * New or modified rows.
+     */
+    public List<RoutingAlgorithm.CombatAchievement> getChanged()
+    {
+        return changed;
+    }
+
+    /**
+     * Task IDs that are no longer on the wiki, ascending.
+     */
+    public int[] getRemoved()
+    {
+        return removed.clone();
+    }
+
+    public int size()
+    {
+        return changed.size() + removed.length;
+    }
+
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+}
@@ -0,0 +1,177 @@
+package com.CAHelper;
+
+import com.google.gson.Gson;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.RuneLite;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only log of wiki row changes on top of the full wiki cache file.
+ * Each line is one changed or removed task; the cache file plus a replay of
+ * this journal gives the latest rows. Compacted into the cache file once it grows.
+ */
+@Slf4j
+@Singleton
+public class WikiDeltaJournal
+{
+    private static final String JOURNAL_FILE = "ca-wiki-journal.jsonl";
+
+    // Roughly half the task list; past this a full rewrite is cheaper to replay
+    static final int COMPACT_THRESHOLD = 300;
+
+    @Inject
+    private Gson gson;
+
+    private final File journalFile;
+
+    // Records in the journal file, guarded by this
+    private int entryCount = 0;
+
+    public WikiDeltaJournal()
+    {
+        journalFile = new File(RuneLite.RUNELITE_DIR, JOURNAL_FILE);
+    }
+
+    WikiDeltaJournal(Gson gson, File journalFile)
+    {
+        this.gson = gson;
+        this.journalFile = journalFile;
+    }
+
+    /**
+     * Replay the journal over the rows from the cache file.
+     * @return the patched rows, or the base rows unchanged if there is no journal
+     */
+    public synchronized List<RoutingAlgorithm.CombatAchievement> replay(List<RoutingAlgorithm.CombatAchievement> base)
+    {
+        entryCount = 0;
+
+        if (!journalFile.exists())
+        {
+            return base;
+        }
+
+        // Records are applied in order, so a later removal or re-add of the same ID wins
+        Map<Integer, RoutingAlgorithm.CombatAchievement> byId = new LinkedHashMap<>(base.size() * 2);
+        for (RoutingAlgorithm.CombatAchievement row : base)
+        {
+            byId.putIfAbsent(row.getId(), row);
+        }
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(journalFile)))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                Entry entry;
+                try
+                {
+                    entry = gson.fromJson(line, Entry.class);
+                }
+                catch (Exception e)
+                {
+                    // A torn final line from a crash mid-append; everything before it is still good
+                    log.warn("Skipping unreadable journal line");
+                    continue;
+                }
+
+                if (entry == null)
+                {
+                    continue;
+                }
+
+                if (entry.removedId != null)
+                {
+                    byId.remove(entry.removedId);
+                }
+                else if (entry.row != null)
+                {
+                    byId.put(entry.row.getId(), entry.row);
+                }
+                entryCount++;
+            }
+        }
+        catch (Exception e)
+        {
+            log.error("Failed to replay wiki journal", e);
+            return base;
+        }
+
+        log.info("Replayed {} journal records over {} cached tasks", entryCount, base.size());
+        return new ArrayList<>(byId.values());
+    }
+
+    /**
+     * Append the delta's records to the journal.
+     * @return true once the journal is large enough that it should be compacted
+     */
+    public synchronized boolean append(WikiDelta delta)
+    {
+        try (FileWriter writer = new FileWriter(journalFile, true))
+        {
+            for (int id : delta.getRemoved())
+            {
+                Entry entry = new Entry();
+                entry.removedId = id;
+                writer.write(gson.toJson(entry));
+                writer.write('\n');
+            }
+
+            for (RoutingAlgorithm.CombatAchievement row : delta.getChanged())
+            {
+                Entry entry = new Entry();
+                entry.row = row;
+                writer.write(gson.toJson(entry));
+                writer.write('\n');
+            }
+
+            entryCount += delta.size();
+            log.info("Appended {} records to wiki journal ({} total)", delta.size(), entryCount);
+        }
+        catch (Exception e)
+        {
+            log.error("Failed to append to wiki journal", e);
+            // The journal may be missing records now; a full rewrite makes the cache consistent again
+            return true;
+        }
+
+        return entryCount >= COMPACT_THRESHOLD;
+    }
+
+    /**
+     * When the journal was last written, or 0 if there is none.
+     */
+    public long lastModified()
+    {
+        return journalFile.lastModified();
+    }
+
+    /**
+     * Delete the journal; call after the full cache file has been rewritten.
+     */
+    public synchronized void clear()
+    {
+        if (journalFile.exists())
+        {
+            journalFile.delete();
+            log.info("Wiki journal cleared");
+        }
+        entryCount = 0;
+    }
+
+    private static class Entry
+    {
+        Integer removedId;
+        RoutingAlgorithm.CombatAchievement row;
+    }
+}
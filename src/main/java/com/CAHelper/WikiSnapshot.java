@@ -0,0 +1,50 @@
+package com.CAHelper;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable view of the loaded wiki data. Published as a whole, so readers
+ * always see the columns together with the version they belong to.
+ */
+public final class WikiSnapshot
+{
+    public static final WikiSnapshot EMPTY = new WikiSnapshot(0, WikiAttributeStore.empty(), Collections.emptyList());
+
+    private final long version;
+    private final WikiAttributeStore store;
+    private final List<RoutingAlgorithm.CombatAchievement> rows;
+
+    public WikiSnapshot(long version, WikiAttributeStore store, List<RoutingAlgorithm.CombatAchievement> rows)
+    {
+        this.version = version;
+        this.store = store;
+        this.rows = Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * Increases every time new wiki data is published; 0 means nothing loaded.
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+
+    public WikiAttributeStore getStore()
+    {
+        return store;
+    }
+
+    /**
+     * The parsed wiki rows the store was built from.
+     */
+    public List<RoutingAlgorithm.CombatAchievement> getRows()
+    {
+        return rows;
+    }
+
+    public boolean isLoaded()
+    {
+        return this != EMPTY;
+    }
+}
@@ -0,0 +1,283 @@
+package com.CAHelper;
+
+import net.runelite.client.ui.PluginPanel;
+
+import javax.swing.JComponent;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Insets;
+import java.awt.Toolkit;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Plain-text label that word-wraps to its width. A lightweight stand-in for
+ * {@code JLabel("<html>...</html>")}, which builds an HTML document and view tree
+ * per label. Line breaks are measured with the label's font and cached per width,
+ * so re-layouts at a width already seen don't measure anything.
+ */
+public class WrappedTextLabel extends JComponent
+{
+    // A panel only ever sees a couple of widths (before and after the scrollbar appears)
+    private static final int CACHED_WIDTHS = 4;
+
+    private String text;
+    private int horizontalAlignment = SwingConstants.LEFT;
+
+    // width -> {start0, end0, start1, end1, ...}
+    private final Map<Integer, int[]> breaksByWidth = new LinkedHashMap<Integer, int[]>(CACHED_WIDTHS, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest)
+        {
+            return size() > CACHED_WIDTHS;
+        }
+    };
+    private int naturalWidth = -1;
+
+    public WrappedTextLabel(String text)
+    {
+        this.text = text != null ? text.trim() : "";
+        setAlignmentX(LEFT_ALIGNMENT);
+    }
+
+    public void setText(String text)
+    {
+        text = text != null ? text.trim() : "";
+        if (!text.equals(this.text))
+        {
+            this.text = text;
+            invalidateBreaks();
+        }
+    }
+
+    public String getText()
+    {
+        return text;
+    }
+
+    /**
+     * {@link SwingConstants#LEFT} or {@link SwingConstants#CENTER}.
+     */
+    public void setHorizontalAlignment(int alignment)
+    {
+        horizontalAlignment = alignment;
+        repaint();
+    }
+
+    @Override
+    public void setFont(Font font)
+    {
+        super.setFont(font);
+        invalidateBreaks();
+    }
+
+    private void invalidateBreaks()
+    {
+        breaksByWidth.clear();
+        naturalWidth = -1;
+        revalidate();
+        repaint();
+    }
+
+    @Override
+    public Dimension getPreferredSize()
+    {
+        if (isPreferredSizeSet())
+        {
+            return super.getPreferredSize();
+        }
+
+        Insets insets = getInsets();
+        FontMetrics fm = getFontMetrics(getFont());
+        int width = Math.min(naturalWidth(fm), availableWidth());
+        return new Dimension(width + insets.left + insets.right,
+                lineCount(fm, width) * fm.getHeight() + insets.top + insets.bottom);
+    }
+
+    @Override
+    public Dimension getMinimumSize()
+    {
+        return new Dimension(0, getPreferredSize().height);
+    }
+
+    @Override
+    public Dimension getMaximumSize()
+    {
+        return new Dimension(Integer.MAX_VALUE, getPreferredSize().height);
+    }
+
+    @Override
+    public void setBounds(int x, int y, int width, int height)
+    {
+        if (getFont() == null)
+        {
+            super.setBounds(x, y, width, height);
+            return;
+        }
+
+        // The preferred height was computed for the width available before this call
+        FontMetrics fm = getFontMetrics(getFont());
+        int before = availableWidth();
+        super.setBounds(x, y, width, height);
+        int after = availableWidth();
+
+        // Only a different number of lines changes the height; ask for another pass then
+        if (after != before && lineCount(fm, after) != lineCount(fm, before))
+        {
+            SwingUtilities.invokeLater(this::revalidate);
+        }
+    }
+
+    private int lineCount(FontMetrics fm, int width)
+    {
+        return breaks(fm, Math.min(naturalWidth(fm), width)).length / 2;
+    }
+
+    private int availableWidth()
+    {
+        Insets insets = getInsets();
+        if (getWidth() > 0)
+        {
+            return Math.max(1, getWidth() - insets.left - insets.right);
+        }
+        if (getParent() != null && getParent().getWidth() > 0)
+        {
+            Insets parentInsets = getParent().getInsets();
+            return Math.max(1, getParent().getWidth() - parentInsets.left - parentInsets.right
+                    - insets.left - insets.right);
+        }
+        return PluginPanel.PANEL_WIDTH;
+    }
+
+    private int naturalWidth(FontMetrics fm)
+    {
+        if (naturalWidth < 0)
+        {
+            naturalWidth = fm.stringWidth(text);
+        }
+        return naturalWidth;
+    }
+
+    /**
+     * Greedy word wrap; words wider than a line are split between characters.
+     * Each word is measured once.
+     */
+    private int[] breaks(FontMetrics fm, int width)
+    {
+        int[] cached = breaksByWidth.get(width);
+        if (cached != null)
+        {
+            return cached;
+        }
+
+        char[] chars = text.toCharArray();
+        int length = chars.length;
+        int spaceWidth = fm.charWidth(' ');
+        int[] breaks = new int[8];
+        int count = 0;
+        int lineStart = 0;
+
+        while (lineStart < length)
+        {
+            int lineEnd = lineStart;
+            int lineWidth = 0;
+            int scan = lineStart;
+
+            while (scan < length)
+            {
+                int wordEnd = scan;
+                while (wordEnd < length && chars[wordEnd] != ' ')
+                {
+                    wordEnd++;
+                }
+
+                int wordWidth = fm.charsWidth(chars, scan, wordEnd - scan);
+                int needed = lineEnd == lineStart ? wordWidth : lineWidth + spaceWidth + wordWidth;
+                if (needed > width)
+                {
+                    break;
+                }
+
+                lineWidth = needed;
+                lineEnd = wordEnd;
+                scan = wordEnd + 1;
+            }
+
+            if (lineEnd == lineStart)
+            {
+                // A single word wider than the line: take as many characters as fit, at least one
+                lineEnd = lineStart + 1;
+                int fitted = fm.charWidth(chars[lineStart]);
+                while (lineEnd < length && chars[lineEnd] != ' ' && fitted + fm.charWidth(chars[lineEnd]) <= width)
+                {
+                    fitted += fm.charWidth(chars[lineEnd++]);
+                }
+            }
+
+            if (count + 2 > breaks.length)
+            {
+                breaks = Arrays.copyOf(breaks, breaks.length * 2);
+            }
+            breaks[count++] = lineStart;
+            breaks[count++] = lineEnd;
+
+            lineStart = lineEnd;
+            while (lineStart < length && chars[lineStart] == ' ')
+            {
+                lineStart++;
+            }
+        }
+
+        int[] result = Arrays.copyOf(breaks, count);
+        breaksByWidth.put(width, result);
+        return result;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g)
+    {
+        super.paintComponent(g);
+
+        Graphics2D g2 = (Graphics2D) g.create();
+        try
+        {
+            // Same text rendering as a JLabel
+            Map<?, ?> desktopHints = (Map<?, ?>) Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+            if (desktopHints != null)
+            {
+                g2.addRenderingHints(desktopHints);
+            }
+            g2.setFont(getFont());
+            g2.setColor(getForeground());
+
+            FontMetrics fm = g2.getFontMetrics();
+            Insets insets = getInsets();
+            int width = availableWidth();
+            int[] breaks = breaks(getFontMetrics(getFont()), width);
+
+            int y = insets.top + fm.getAscent();
+            for (int i = 0; i < breaks.length; i += 2)
+            {
+                String line = text.substring(breaks[i], breaks[i + 1]);
+                int x = insets.left;
+                if (horizontalAlignment == SwingConstants.CENTER)
+                {
+                    x += (width - fm.stringWidth(line)) / 2;
+                }
+                g2.drawString(line, x, y);
+                y += fm.getHeight();
+            }
+        }
+        finally
+        {
+            g2.dispose();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.CAHelper;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BossQueueTest
+{
+    // Same shape as the routing orders: a score, then boss ID so every boss has one slot
+    private static final Comparator<RoutingAlgorithm.BossRecommendation> BY_SCORE = Comparator
+            .comparingDouble(RoutingAlgorithm.BossRecommendation::getCompletionPercentage)
+            .reversed()
+            .thenComparingInt(RoutingAlgorithm.BossRecommendation::getBossId);
+    private static final Comparator<RoutingAlgorithm.BossRecommendation> BY_DIFFICULTY = Comparator
+            .comparingInt(RoutingAlgorithm.BossRecommendation::getMinIncompleteDifficulty)
+            .thenComparingInt(RoutingAlgorithm.BossRecommendation::getBossId);
+
+    private static RoutingAlgorithm.BossRecommendation rec(int bossId, double score, int difficulty)
+    {
+        return new RoutingAlgorithm.BossRecommendation(bossId, "Boss " + bossId, 0, 1, 1, score, difficulty,
+                Collections.emptyList(), Collections.emptyMap(), 0);
+    }
+
+    private static List<Integer> ids(BossQueue queue)
+    {
+        return queue.toRankedList().stream()
+                .map(RoutingAlgorithm.BossRecommendation::getBossId)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void changedScoresMoveUpAndDown()
+    {
+        BossQueue queue = new BossQueue(BY_SCORE);
+        queue.sync(Arrays.asList(rec(0, 50, 0), rec(1, 40, 0), rec(2, 30, 0), rec(3, 20, 0)));
+        assertEquals(Arrays.asList(0, 1, 2, 3), ids(queue));
+
+        queue.update(rec(3, 60, 0));
+        assertEquals(Arrays.asList(3, 0, 1, 2), ids(queue));
+        assertEquals(3, queue.peek().getBossId());
+
+        queue.update(rec(3, 10, 0));
+        assertEquals(Arrays.asList(0, 1, 2, 3), ids(queue));
+
+        // Tied scores fall back to boss ID
+        queue.update(rec(2, 40, 0));
+        assertEquals(Arrays.asList(0, 1, 2, 3), ids(queue));
+    }
+
+    @Test
+    public void unchangedRecommendationKeepsTheRankedList()
+    {
+        BossQueue queue = new BossQueue(BY_SCORE);
+        RoutingAlgorithm.BossRecommendation zero = rec(0, 50, 0);
+        queue.sync(Arrays.asList(zero, rec(1, 40, 0)));
+        List<RoutingAlgorithm.BossRecommendation> ranked = queue.toRankedList();
+
+        queue.update(zero);
+        assertSame(ranked, queue.toRankedList());
+
+        // New recommendation with the same rank key stays in place but is the one handed out
+        RoutingAlgorithm.BossRecommendation newer = rec(0, 50, 3);
+        queue.update(newer);
+        assertSame(newer, queue.toRankedList().get(0));
+        assertSame(newer, queue.get(0));
+    }
+
+    @Test
+    public void removeClosesTheGap()
+    {
+        BossQueue queue = new BossQueue(BY_SCORE);
+        queue.sync(Arrays.asList(rec(4, 10, 0), rec(7, 30, 0), rec(2, 20, 0)));
+
+        queue.remove(7);
+        assertEquals(Arrays.asList(2, 4), ids(queue));
+        assertFalse(queue.contains(7));
+        assertNull(queue.get(7));
+        assertEquals(2, queue.size());
+
+        queue.remove(7);
+        queue.remove(99);
+        assertEquals(2, queue.size());
+
+        queue.remove(2);
+        queue.remove(4);
+        assertNull(queue.peek());
+        assertTrue(queue.toRankedList().isEmpty());
+    }
+
+    @Test
+    public void setOrderResorts()
+    {
+        BossQueue queue = new BossQueue(BY_SCORE);
+        queue.sync(Arrays.asList(rec(0, 50, 4), rec(1, 40, 1), rec(2, 30, 2)));
+
+        queue.setOrder(BY_DIFFICULTY);
+        assertEquals(Arrays.asList(1, 2, 0), ids(queue));
+
+        // Updates follow the new order
+        queue.update(rec(0, 50, 0));
+        assertEquals(Arrays.asList(0, 1, 2), ids(queue));
+
+        queue.setOrder(BY_SCORE);
+        assertEquals(Arrays.asList(0, 1, 2), ids(queue));
+    }
+
+    @Test
+    public void syncDropsBossesMissingFromTheList()
+    {
+        BossQueue queue = new BossQueue(BY_SCORE);
+        queue.sync(Arrays.asList(rec(0, 50, 0), rec(1, 40, 0), rec(2, 30, 0), rec(9, 20, 0)));
+
+        queue.sync(Arrays.asList(rec(1, 40, 0), rec(9, 45, 0)));
+        assertEquals(Arrays.asList(9, 1), ids(queue));
+        assertFalse(queue.contains(0));
+        assertFalse(queue.contains(2));
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void randomUpdatesMatchAFullSort()
+    {
+        Random random = new Random(45);
+        BossQueue queue = new BossQueue(BY_SCORE);
+        RoutingAlgorithm.BossRecommendation[] current = new RoutingAlgorithm.BossRecommendation[60];
+
+        for (int step = 0; step < 2000; step++)
+        {
+            // Switch orders every 500 steps; setting the current one is a no-op
+            Comparator<RoutingAlgorithm.BossRecommendation> order = (step / 500) % 2 == 0 ? BY_SCORE : BY_DIFFICULTY;
+            queue.setOrder(order);
+
+            int bossId = random.nextInt(current.length);
+            if (random.nextInt(6) == 0)
+            {
+                queue.remove(bossId);
+                current[bossId] = null;
+            }
+            else
+            {
+                // Few distinct scores, so ties are common
+                current[bossId] = rec(bossId, random.nextInt(8) * 10, random.nextInt(6));
+                queue.update(current[bossId]);
+            }
+
+            List<RoutingAlgorithm.BossRecommendation> expected = new ArrayList<>();
+            for (RoutingAlgorithm.BossRecommendation rec : current)
+            {
+                if (rec != null)
+                {
+                    expected.add(rec);
+                }
+            }
+            expected.sort(order);
+            assertEquals("step " + step, expected, queue.toRankedList());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.CAHelper;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CombatAchievementEnrichmentServiceTest
+{
+    private final CombatAchievementEnrichmentService service = new CombatAchievementEnrichmentService();
+
+    private static Throwable failure(CompletableFuture<Boolean> future) throws InterruptedException
+    {
+        assertTrue(future.isCompletedExceptionally());
+        try
+        {
+            future.get();
+            fail("future completed normally");
+            return null;
+        }
+        catch (ExecutionException e)
+        {
+            return e.getCause();
+        }
+        catch (CancellationException e)
+        {
+            return e;
+        }
+    }
+
+    @Test
+    public void rejectedFetchFailsAndIsNotShared() throws InterruptedException
+    {
+        CompletableFuture<Boolean> rejected = service.fetchFromWiki(command -> {
+            throw new RejectedExecutionException("shut down");
+        });
+        assertTrue(failure(rejected) instanceof RejectedExecutionException);
+
+        // The next fetch is queued fresh instead of attaching to the failed one
+        List<Runnable> queued = new ArrayList<>();
+        assertFalse(service.fetchFromWiki(queued::add).isDone());
+        assertEquals(1, queued.size());
+    }
+
+    @Test
+    public void abandonFailsAFetchThatNeverRan() throws InterruptedException
+    {
+        // Queued but dropped, as shutdownNow does
+        List<Runnable> dropped = new ArrayList<>();
+        CompletableFuture<Boolean> first = service.fetchFromWiki(dropped::add);
+        CompletableFuture<Boolean> shared = service.fetchFromWiki(dropped::add);
+        assertEquals(1, dropped.size());
+
+        service.abandonFetch();
+        assertTrue(failure(first) instanceof CancellationException);
+        assertTrue(failure(shared) instanceof CancellationException);
+
+        List<Runnable> queued = new ArrayList<>();
+        assertFalse(service.fetchFromWiki(queued::add).isDone());
+        assertEquals(1, queued.size());
+    }
+}
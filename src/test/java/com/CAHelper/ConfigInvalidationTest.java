@@ -0,0 +1,34 @@
+package com.CAHelper;
+
+import net.runelite.client.config.ConfigItem;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigInvalidationTest
+{
+    @Test
+    public void everyConfigItemIsMapped()
+    {
+        int items = 0;
+        for (Method method : CAHelperConfig.class.getMethods())
+        {
+            ConfigItem item = method.getAnnotation(ConfigItem.class);
+            if (item != null)
+            {
+                items++;
+                assertTrue(item.keyName() + " has no invalidation stage", ConfigInvalidation.isMapped(item.keyName()));
+            }
+        }
+        assertTrue("no @ConfigItem methods found", items > 0);
+    }
+
+    @Test
+    public void unknownKeysInvalidateEverything()
+    {
+        assertEquals(ConfigInvalidation.Stage.FILTER, ConfigInvalidation.forKey("notARealKey"));
+    }
+}
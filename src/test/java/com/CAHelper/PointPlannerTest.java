@@ -0,0 +1,196 @@
+package com.CAHelper;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PointPlannerTest
+{
+    private static final RoutingAlgorithm.Difficulty[] DIFFICULTIES = RoutingAlgorithm.Difficulty.values();
+
+    private TestTasks.Tasks tasks;
+    private TestTasks.Wiki wiki;
+    private PointPlanner planner;
+
+    // Completion rate by task ID, as published to the wiki snapshot
+    private final double[] rates = new double[64];
+
+    @Before
+    public void setUp()
+    {
+        tasks = new TestTasks.Tasks();
+        wiki = new TestTasks.Wiki();
+        planner = new PointPlanner(tasks, wiki);
+    }
+
+    @Test
+    public void picksTheCheapestSetThatReachesTheTier()
+    {
+        // Two common easies beat a rare medium or an uncommon hard for 2 points; for 3 the hard wins
+        addTask(0, RoutingAlgorithm.Difficulty.EASY, 80);
+        addTask(1, RoutingAlgorithm.Difficulty.EASY, 70);
+        addTask(2, RoutingAlgorithm.Difficulty.MEDIUM, 0.5);
+        addTask(3, RoutingAlgorithm.Difficulty.HARD, 5);
+        publish();
+
+        tasks.pointsToNextTier = 2;
+        PointPlanner.Plan plan = planner.plan();
+        assertEquals(new HashSet<>(ids(0, 1)), new HashSet<>(plan.getTaskIds()));
+        assertEquals(2, plan.getPointsPlanned());
+        assertEquals("Elite", plan.getTierName());
+
+        tasks.pointsToNextTier = 3;
+        plan = planner.plan();
+        assertEquals(ids(3), plan.getTaskIds());
+        assertEquals(3, plan.getPointsPlanned());
+        assertTrue(plan.isReachable());
+    }
+
+    @Test
+    public void unreachableTierPlansNothing()
+    {
+        addTask(0, RoutingAlgorithm.Difficulty.EASY, 50);
+        addTask(1, RoutingAlgorithm.Difficulty.MEDIUM, 50);
+        publish();
+
+        tasks.pointsToNextTier = 4;
+        PointPlanner.Plan plan = planner.plan();
+
+        assertFalse(plan.isReachable());
+        assertTrue(plan.getTaskIds().isEmpty());
+    }
+
+    @Test
+    public void matchesBruteForceAsTasksAreCompleted()
+    {
+        Random random = new Random(41);
+        int n = 18;
+        for (int id = 0; id < n; id++)
+        {
+            addTask(id, DIFFICULTIES[random.nextInt(DIFFICULTIES.length)], random.nextInt(5) == 0 ? 0 : 0.1 + random.nextDouble() * 90);
+        }
+        publish();
+
+        for (int round = 0; round < 12; round++)
+        {
+            tasks.pointsToNextTier = 1 + random.nextInt(30);
+            PointPlanner.Plan plan = planner.plan();
+            double expected = bruteForce(n, tasks.pointsToNextTier);
+
+            if (Double.isInfinite(expected))
+            {
+                assertFalse(plan.isReachable());
+            }
+            else
+            {
+                assertTrue(plan.isReachable());
+                assertEquals("round " + round, expected, plan.getCost(), 1e-9);
+                assertEquals(expected, costOf(plan.getTaskIds()), 1e-9);
+                assertEquals(pointsOf(plan.getTaskIds()), plan.getPointsPlanned());
+                for (int id : plan.getTaskIds())
+                {
+                    assertFalse(CombatAchievementService.isBitSet(tasks.completionBits, id));
+                }
+            }
+
+            // Complete (or occasionally un-complete) a task between plans, like a varp update
+            int id = random.nextInt(n);
+            if (CombatAchievementService.isBitSet(tasks.completionBits, id))
+            {
+                tasks.completionBits[id >> 6] &= ~(1L << id);
+            }
+            else
+            {
+                tasks.complete(id);
+            }
+        }
+    }
+
+    private void addTask(int id, RoutingAlgorithm.Difficulty difficulty, double completionRate)
+    {
+        tasks.add(id, difficulty);
+        rates[id] = completionRate;
+    }
+
+    private void publish()
+    {
+        List<RoutingAlgorithm.CombatAchievement> rows = new ArrayList<>();
+        for (int id : tasks.store.ids())
+        {
+            rows.add(new RoutingAlgorithm.CombatAchievement(id, "Task " + id, "Boss", -1, tasks.store.getDifficulty(id),
+                    RoutingAlgorithm.TaskType.KILLCOUNT, rates[id], false, "", new ArrayList<>()));
+        }
+        wiki.publish(rows);
+    }
+
+    /**
+     * Cheapest subset of incomplete tasks worth at least {@code needed} points.
+     */
+    private double bruteForce(int n, int needed)
+    {
+        double best = Double.POSITIVE_INFINITY;
+        for (int mask = 0; mask < 1 << n; mask++)
+        {
+            int points = 0;
+            double cost = 0;
+            boolean valid = true;
+            for (int id = 0; id < n && valid; id++)
+            {
+                if ((mask & (1 << id)) != 0)
+                {
+                    valid = !CombatAchievementService.isBitSet(tasks.completionBits, id);
+                    points += tasks.store.getDifficulty(id).getPoints();
+                    cost += cost(id);
+                }
+            }
+            if (valid && points >= needed && cost < best)
+            {
+                best = cost;
+            }
+        }
+        return best;
+    }
+
+    private double costOf(List<Integer> ids)
+    {
+        double cost = 0;
+        for (int id : ids)
+        {
+            cost += cost(id);
+        }
+        return cost;
+    }
+
+    private int pointsOf(List<Integer> ids)
+    {
+        int points = 0;
+        for (int id : ids)
+        {
+            points += tasks.store.getDifficulty(id).getPoints();
+        }
+        return points;
+    }
+
+    private double cost(int id)
+    {
+        return PointPlanner.cost((float) rates[id]);
+    }
+
+    private static List<Integer> ids(Integer... ids)
+    {
+        List<Integer> list = new ArrayList<>();
+        for (Integer id : ids)
+        {
+            list.add(id);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,167 @@
+package com.CAHelper;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TaskBitmapTest
+{
+    private static TaskBitmap bitmap(int capacity, int... ids)
+    {
+        TaskBitmap.Builder builder = TaskBitmap.builder(capacity);
+        for (int id : ids)
+        {
+            builder.set(id);
+        }
+        return builder.build();
+    }
+
+    // One word against three
+    private final TaskBitmap shortSet = bitmap(64, 0, 5, 63);
+    private final TaskBitmap longSet = bitmap(192, 5, 63, 64, 130, 191);
+
+    @Test
+    public void andKeepsOnlySharedIdsWhicheverSideIsShorter()
+    {
+        assertArrayEquals(new int[]{5, 63}, shortSet.and(longSet).ids());
+        assertArrayEquals(new int[]{5, 63}, longSet.and(shortSet).ids());
+    }
+
+    @Test
+    public void orKeepsTheLongerTail()
+    {
+        int[] expected = {0, 5, 63, 64, 130, 191};
+        assertArrayEquals(expected, shortSet.or(longSet).ids());
+        assertArrayEquals(expected, longSet.or(shortSet).ids());
+    }
+
+    @Test
+    public void andNotOnlyRemovesWhereTheOtherSideHasWords()
+    {
+        assertArrayEquals(new int[]{0}, shortSet.andNot(longSet).ids());
+        assertArrayEquals(new int[]{64, 130, 191}, longSet.andNot(shortSet).ids());
+    }
+
+    @Test
+    public void xorKeepsIdsInExactlyOneSide()
+    {
+        int[] expected = {0, 64, 130, 191};
+        assertArrayEquals(expected, shortSet.xor(longSet).ids());
+        assertArrayEquals(expected, longSet.xor(shortSet).ids());
+        assertTrue(longSet.xor(longSet).isEmpty());
+    }
+
+    @Test
+    public void equalityIgnoresTrailingEmptyWords()
+    {
+        TaskBitmap padded = bitmap(640, 0, 5, 63);
+        assertEquals(shortSet, padded);
+        assertEquals(shortSet.hashCode(), padded.hashCode());
+        assertEquals(TaskBitmap.empty(), bitmap(256));
+        assertEquals(TaskBitmap.empty().hashCode(), bitmap(256).hashCode());
+        assertNotEquals(shortSet, longSet);
+    }
+
+    @Test
+    public void builderGrowsPastItsCapacity()
+    {
+        TaskBitmap grown = bitmap(0, 3, 700, 64, -1);
+        assertArrayEquals(new int[]{3, 64, 700}, grown.ids());
+        assertEquals(3, grown.cardinality());
+        assertTrue(grown.get(700));
+        assertFalse(grown.get(701));
+        assertFalse(grown.get(-1));
+        assertFalse(grown.get(100_000));
+    }
+
+    @Test
+    public void forEachVisitsInAscendingOrder()
+    {
+        List<Integer> seen = new ArrayList<>();
+        longSet.forEach(seen::add);
+        assertEquals(Arrays.asList(5, 63, 64, 130, 191), seen);
+        assertTrue(TaskBitmap.empty().isEmpty());
+        assertFalse(longSet.isEmpty());
+    }
+
+    @Test
+    public void ofCopiesTheWords()
+    {
+        long[] words = {1L, 1L << 63};
+        TaskBitmap bitmap = TaskBitmap.of(words);
+        words[0] = 0;
+        assertArrayEquals(new int[]{0, 127}, bitmap.ids());
+    }
+
+    @Test
+    public void randomCombinationsMatchBitSet()
+    {
+        Random random = new Random(46);
+        for (int round = 0; round < 200; round++)
+        {
+            BitSet a = new BitSet();
+            BitSet b = new BitSet();
+            TaskBitmap x = randomBitmap(random, a);
+            TaskBitmap y = randomBitmap(random, b);
+
+            assertArrayEquals(and(a, b).stream().toArray(), x.and(y).ids());
+            assertArrayEquals(or(a, b).stream().toArray(), x.or(y).ids());
+            assertArrayEquals(andNot(a, b).stream().toArray(), x.andNot(y).ids());
+            assertArrayEquals(xor(a, b).stream().toArray(), x.xor(y).ids());
+            assertEquals(a.equals(b), x.equals(y));
+        }
+    }
+
+    private static TaskBitmap randomBitmap(Random random, BitSet mirror)
+    {
+        // Lengths from empty to several words, so most pairs differ in length
+        int capacity = random.nextInt(5) * 64;
+        TaskBitmap.Builder builder = TaskBitmap.builder(capacity);
+        int count = capacity == 0 ? 0 : random.nextInt(capacity / 4 + 1);
+        for (int i = 0; i < count; i++)
+        {
+            int id = random.nextInt(capacity);
+            builder.set(id);
+            mirror.set(id);
+        }
+        return builder.build();
+    }
+
+    private static BitSet and(BitSet a, BitSet b)
+    {
+        BitSet result = (BitSet) a.clone();
+        result.and(b);
+        return result;
+    }
+
+    private static BitSet or(BitSet a, BitSet b)
+    {
+        BitSet result = (BitSet) a.clone();
+        result.or(b);
+        return result;
+    }
+
+    private static BitSet andNot(BitSet a, BitSet b)
+    {
+        BitSet result = (BitSet) a.clone();
+        result.andNot(b);
+        return result;
+    }
+
+    private static BitSet xor(BitSet a, BitSet b)
+    {
+        BitSet result = (BitSet) a.clone();
+        result.xor(b);
+        return result;
+    }
+}
@@ -0,0 +1,81 @@
+package com.CAHelper;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TaskDependencyGraphTest
+{
+    private final TaskDependencyGraph graph = new TaskDependencyGraph();
+    private WikiSnapshot snapshot;
+
+    @Before
+    public void setUp()
+    {
+        snapshot = new WikiSnapshot(1, WikiAttributeStore.empty(), Arrays.asList(
+                kills(1, "Chambers of Xeric", 5),
+                kills(2, "Chambers of Xeric", 25),
+                kills(3, "Chambers of Xeric", 75),
+                kills(4, "Chambers of Xeric", 75),
+                kills(5, "Chambers of Xeric: Challenge Mode", 10),
+                TestTasks.task(6, "Chambers of Xeric: Challenge Mode", RoutingAlgorithm.Difficulty.GRANDMASTER,
+                        RoutingAlgorithm.TaskType.SPEED, false)
+        ));
+    }
+
+    private static RoutingAlgorithm.CombatAchievement kills(int id, String monster, int count)
+    {
+        return TestTasks.task(id, monster + " " + count, monster, RoutingAlgorithm.Difficulty.ELITE,
+                RoutingAlgorithm.TaskType.KILLCOUNT, false, "Kill " + monster + " " + count + " times.");
+    }
+
+    @Test
+    public void killCountLaddersLinkEachStepToTheOneBelow()
+    {
+        graph.sync(snapshot, TestTasks.bits());
+
+        assertEquals(Collections.emptyList(), graph.getPrerequisites(1));
+        assertEquals(Collections.singletonList(1), graph.getPrerequisites(2));
+        // Equal counts are alternatives, both after the last lower count
+        assertEquals(Collections.singletonList(2), graph.getPrerequisites(3));
+        assertEquals(Collections.singletonList(2), graph.getPrerequisites(4));
+        assertEquals(3, graph.getEdgeCount());
+    }
+
+    @Test
+    public void challengeModeDoesNotWaitOnTheNormalMode()
+    {
+        graph.sync(snapshot, TestTasks.bits());
+
+        assertEquals(Collections.emptyList(), graph.getPrerequisites(5));
+        assertEquals(Collections.emptyList(), graph.getPrerequisites(6));
+        assertTrue(graph.isUnlocked(5));
+        assertTrue(graph.isUnlocked(6));
+    }
+
+    @Test
+    public void completionsUnlockAndRelockDependents()
+    {
+        graph.sync(snapshot, TestTasks.bits());
+        assertArrayEquals(new int[]{2, 3, 4}, graph.getLocked().ids());
+
+        graph.sync(snapshot, TestTasks.bits(1));
+        assertTrue(graph.isUnlocked(2));
+        assertArrayEquals(new int[]{3, 4}, graph.getLocked().ids());
+
+        graph.sync(snapshot, TestTasks.bits(1, 2));
+        assertTrue(graph.getLocked().isEmpty());
+
+        // A completion that goes away (e.g. logging into another account) locks again
+        graph.sync(snapshot, TestTasks.bits());
+        assertFalse(graph.isUnlocked(2));
+        assertArrayEquals(new int[]{2, 3, 4}, graph.getLocked().ids());
+    }
+}
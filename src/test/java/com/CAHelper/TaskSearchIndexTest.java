@@ -0,0 +1,79 @@
+package com.CAHelper;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TaskSearchIndexTest
+{
+    private final TestTasks.Tasks tasks = new TestTasks.Tasks();
+    private final TestTasks.Wiki wiki = new TestTasks.Wiki();
+    private final TaskSearchIndex index = new TaskSearchIndex(tasks, wiki);
+
+    @Before
+    public void setUp()
+    {
+        tasks.add(1, "Snake Charmer", "Kill Zulrah 50 times.", RoutingAlgorithm.Difficulty.MEDIUM)
+                .add(2, "Vorkath Speed-Trialist", "Kill Vorkath in under 1:15.", RoutingAlgorithm.Difficulty.MASTER)
+                .add(3, "Zulrah Veteran", "Kill Zulrah 500 times.", RoutingAlgorithm.Difficulty.ELITE)
+                .add(4, "Dodging Dragon", "Kill Vorkath without taking damage from Zulrah-like venom.",
+                        RoutingAlgorithm.Difficulty.ELITE);
+        wiki.publish(Arrays.asList(
+                TestTasks.task(1, "Snake Charmer", "Zulrah", RoutingAlgorithm.Difficulty.MEDIUM,
+                        RoutingAlgorithm.TaskType.KILLCOUNT, false, "Kill Zulrah 50 times."),
+                TestTasks.task(2, "Vorkath Speed-Trialist", "Vorkath", RoutingAlgorithm.Difficulty.MASTER,
+                        RoutingAlgorithm.TaskType.SPEED, false, "Kill Vorkath in under 1:15.")
+        ));
+    }
+
+    private List<Integer> search(String query)
+    {
+        return index.search(query, 10).stream()
+                .map(TaskSearchIndex.Result::getTaskId)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void searchOnlySeesWhatRefreshPublished()
+    {
+        assertTrue(search("zulrah").isEmpty());
+
+        index.refresh();
+        assertEquals(Arrays.asList(3, 1, 4), search("zulrah"));
+
+        // Changes to the task list stay invisible to search until the next refresh
+        tasks.add(5, "Zulrah Adept", "Kill Zulrah 100 times.", RoutingAlgorithm.Difficulty.HARD);
+        assertEquals(Arrays.asList(3, 1, 4), search("zulrah"));
+
+        index.refresh();
+        assertEquals(Arrays.asList(5, 3, 1, 4), search("zulrah"));
+    }
+
+    @Test
+    public void nameHitsOutrankBossAndDescriptionHits()
+    {
+        index.refresh();
+
+        // 2 has Vorkath in its name and as its wiki monster; 4 only in its description
+        assertEquals(Arrays.asList(2, 4), search("vork"));
+        // 1 matches Zulrah as its wiki monster, 3 by name
+        assertEquals(Arrays.asList(3, 1, 4), search("zul"));
+    }
+
+    @Test
+    public void typingMoreNarrowsThePreviousMatches()
+    {
+        index.refresh();
+
+        assertEquals(Arrays.asList(2, 4), search("vorkath"));
+        assertEquals(Arrays.asList(2), search("vorkath sp"));
+        assertEquals(Arrays.asList(2, 4), search("vorkath"));
+        assertTrue(search("vorkath speedy").isEmpty());
+    }
+}
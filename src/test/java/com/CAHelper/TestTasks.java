@@ -0,0 +1,127 @@
+package com.CAHelper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Task fixtures and stand-ins for the client-backed services, so the planners and
+ * indexes can be tested without a game client.
+ */
+final class TestTasks
+{
+    private TestTasks()
+    {
+    }
+
+    static RoutingAlgorithm.CombatAchievement task(int id, String monster, RoutingAlgorithm.Difficulty difficulty,
+                                                   RoutingAlgorithm.TaskType type, boolean completed)
+    {
+        return task(id, "Task " + id, monster, difficulty, type, completed, "Description " + id);
+    }
+
+    static RoutingAlgorithm.CombatAchievement task(int id, String name, String monster, RoutingAlgorithm.Difficulty difficulty,
+                                                   RoutingAlgorithm.TaskType type, boolean completed, String description)
+    {
+        return new RoutingAlgorithm.CombatAchievement(id, name, monster, -1, difficulty, type, 0.0, completed,
+                description, Collections.emptyList());
+    }
+
+    static long[] bits(int... completedIds)
+    {
+        long[] bits = new long[20];
+        for (int id : completedIds)
+        {
+            bits[id >> 6] |= 1L << id;
+        }
+        return bits;
+    }
+
+    /**
+     * Serves a fixed task store, completion bitset and tier instead of reading the client.
+     */
+    static class Tasks extends CombatAchievementService
+    {
+        final TaskStore store = new TaskStore();
+        long[] completionBits = new long[20];
+        String nextTier = "Elite";
+        int pointsToNextTier;
+
+        Tasks add(int id, RoutingAlgorithm.Difficulty difficulty)
+        {
+            return add(id, "Task " + id, "Description " + id, difficulty);
+        }
+
+        Tasks add(int id, String name, String description, RoutingAlgorithm.Difficulty difficulty)
+        {
+            store.add(id, name, description, difficulty, RoutingAlgorithm.TaskType.KILLCOUNT, id, -1);
+            return this;
+        }
+
+        void complete(int taskId)
+        {
+            completionBits[taskId >> 6] |= 1L << taskId;
+        }
+
+        @Override
+        public boolean isInitialized()
+        {
+            return true;
+        }
+
+        @Override
+        public TaskStore getStore()
+        {
+            return store;
+        }
+
+        @Override
+        public long[] getCompletionBits()
+        {
+            // The real service returns a fresh snapshot on every call
+            return completionBits.clone();
+        }
+
+        @Override
+        public RoutingAlgorithm.CombatAchievement toRoutingTask(int taskId, boolean completed)
+        {
+            // No monster enum without a client
+            return new RoutingAlgorithm.CombatAchievement(taskId, store.getName(taskId), null, -1,
+                    store.getDifficulty(taskId), store.getType(taskId), 0.0, completed,
+                    store.getDescription(taskId), Collections.emptyList());
+        }
+
+        @Override
+        public String getNextTierName()
+        {
+            return nextTier;
+        }
+
+        @Override
+        public int getPointsToNextTier()
+        {
+            return pointsToNextTier;
+        }
+    }
+
+    /**
+     * Publishes a fixed wiki snapshot.
+     */
+    static class Wiki extends CombatAchievementEnrichmentService
+    {
+        private final BossInterner bossInterner = new BossInterner();
+        private WikiSnapshot snapshot = WikiSnapshot.EMPTY;
+        private long versions = 0;
+
+        void publish(List<RoutingAlgorithm.CombatAchievement> rows)
+        {
+            snapshot = new WikiSnapshot(++versions, WikiAttributeStore.build(rows, bossInterner), new ArrayList<>(rows));
+        }
+
+        @Override
+        public WikiSnapshot getSnapshot()
+        {
+            return snapshot;
+        }
+    }
+}
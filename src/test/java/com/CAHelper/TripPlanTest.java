@@ -0,0 +1,192 @@
+package com.CAHelper;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static com.CAHelper.RoutingAlgorithm.Difficulty.EASY;
+import static com.CAHelper.RoutingAlgorithm.Difficulty.ELITE;
+import static com.CAHelper.RoutingAlgorithm.Difficulty.HARD;
+import static com.CAHelper.RoutingAlgorithm.Difficulty.MEDIUM;
+import static com.CAHelper.RoutingAlgorithm.TaskType.GROUPSIZE;
+import static com.CAHelper.RoutingAlgorithm.TaskType.KILLCOUNT;
+import static com.CAHelper.RoutingAlgorithm.TaskType.MECHANICAL;
+import static com.CAHelper.RoutingAlgorithm.TaskType.RESTRICTION;
+import static com.CAHelper.RoutingAlgorithm.TaskType.SPEED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TripPlanTest
+{
+    @Test
+    public void noIncompleteTasksMeansNoTrips()
+    {
+        assertEquals(0, TripPlan.build(Collections.emptyList()).getTripCount());
+        assertEquals(0, TripPlan.build(Collections.singletonList(
+                TestTasks.task(1, "Zulrah", EASY, KILLCOUNT, true))).getTripCount());
+    }
+
+    @Test
+    public void compatibleTasksShareOneTripEasiestFirst()
+    {
+        TripPlan plan = TripPlan.build(Arrays.asList(
+                TestTasks.task(1, "B kill", "Zulrah", HARD, KILLCOUNT, false, ""),
+                TestTasks.task(2, "A kill", "Zulrah", HARD, MECHANICAL, false, ""),
+                TestTasks.task(3, "Easy kill", "Zulrah", EASY, SPEED, false, ""),
+                TestTasks.task(4, "Done", "Zulrah", ELITE, RESTRICTION, true, "")));
+
+        assertEquals(1, plan.getTripCount());
+        TripPlan.Trip trip = plan.getTrips().get(0);
+        assertEquals(1, trip.getNumber());
+        assertEquals(Arrays.asList(3, 2, 1), ids(trip.getTasks()));
+        assertEquals(EASY.getPoints() + 2 * HARD.getPoints(), trip.getPoints());
+    }
+
+    @Test
+    public void speedAndRestrictionTasksAreSplit()
+    {
+        TripPlan plan = TripPlan.build(Arrays.asList(
+                TestTasks.task(1, "Zulrah", MEDIUM, SPEED, false),
+                TestTasks.task(2, "Zulrah", ELITE, RESTRICTION, false),
+                TestTasks.task(3, "Zulrah", EASY, KILLCOUNT, false)));
+
+        assertEquals(2, plan.getTripCount());
+        assertValid(plan);
+        // The bigger trip comes first
+        assertTrue(plan.getTrips().get(0).getPoints() >= plan.getTrips().get(1).getPoints());
+        assertTrue(ids(plan.getTrips().get(0).getTasks()).contains(2));
+    }
+
+    @Test
+    public void groupAndSoloTasksAreSplit()
+    {
+        TripPlan plan = TripPlan.build(Arrays.asList(
+                TestTasks.task(1, "Team Work", "Nex", ELITE, GROUPSIZE, false, "Kill Nex in a group of 5."),
+                TestTasks.task(2, "Lone Wolf", "Nex", MEDIUM, KILLCOUNT, false, "Kill Nex solo."),
+                TestTasks.task(3, "Quick Nex", "Nex", HARD, SPEED, false, "Kill Nex quickly.")));
+
+        assertEquals(2, plan.getTripCount());
+        assertValid(plan);
+    }
+
+    @Test
+    public void tripCountIsTheMinimumForSmallBosses()
+    {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++)
+        {
+            List<RoutingAlgorithm.CombatAchievement> tasks = randomTasks(random, 2 + random.nextInt(7));
+            TripPlan plan = TripPlan.build(tasks);
+
+            assertValid(plan);
+            assertEquals("round " + round, chromaticNumber(tasks), plan.getTripCount());
+        }
+    }
+
+    @Test
+    public void largeBossesStillGetValidTrips()
+    {
+        Random random = new Random(7);
+        List<RoutingAlgorithm.CombatAchievement> tasks = randomTasks(random, 60);
+        TripPlan plan = TripPlan.build(tasks);
+
+        assertValid(plan);
+        int planned = 0;
+        for (TripPlan.Trip trip : plan.getTrips())
+        {
+            planned += trip.getTasks().size();
+        }
+        assertEquals(tasks.size(), planned);
+        // Two conflict relations, each bipartite, so four trips always suffice
+        assertTrue(plan.getTripCount() <= 4);
+    }
+
+    private static List<RoutingAlgorithm.CombatAchievement> randomTasks(Random random, int n)
+    {
+        RoutingAlgorithm.TaskType[] types = {SPEED, RESTRICTION, KILLCOUNT, GROUPSIZE, MECHANICAL};
+        RoutingAlgorithm.Difficulty[] difficulties = RoutingAlgorithm.Difficulty.values();
+
+        List<RoutingAlgorithm.CombatAchievement> tasks = new ArrayList<>();
+        for (int id = 0; id < n; id++)
+        {
+            String description = random.nextInt(4) == 0 ? "Kill the boss solo." : "Kill the boss.";
+            tasks.add(TestTasks.task(id, "Task " + id, "Boss", difficulties[random.nextInt(difficulties.length)],
+                    types[random.nextInt(types.length)], false, description));
+        }
+        return tasks;
+    }
+
+    private static void assertValid(TripPlan plan)
+    {
+        for (int t = 0; t < plan.getTripCount(); t++)
+        {
+            TripPlan.Trip trip = plan.getTrips().get(t);
+            assertEquals(t + 1, trip.getNumber());
+            if (t > 0)
+            {
+                assertTrue(plan.getTrips().get(t - 1).getPoints() >= trip.getPoints());
+            }
+
+            List<RoutingAlgorithm.CombatAchievement> tasks = trip.getTasks();
+            for (int i = 0; i < tasks.size(); i++)
+            {
+                for (int j = i + 1; j < tasks.size(); j++)
+                {
+                    assertFalse(tasks.get(i).getName() + " / " + tasks.get(j).getName(),
+                            TripPlan.conflicts(tasks.get(i), tasks.get(j)));
+                }
+            }
+        }
+    }
+
+    private static int chromaticNumber(List<RoutingAlgorithm.CombatAchievement> tasks)
+    {
+        for (int k = 1; ; k++)
+        {
+            if (colourable(tasks, new int[tasks.size()], 0, k))
+            {
+                return k;
+            }
+        }
+    }
+
+    private static boolean colourable(List<RoutingAlgorithm.CombatAchievement> tasks, int[] colours, int index, int k)
+    {
+        if (index == tasks.size())
+        {
+            return true;
+        }
+        for (int c = 0; c < k; c++)
+        {
+            boolean free = true;
+            for (int i = 0; i < index && free; i++)
+            {
+                free = colours[i] != c || !TripPlan.conflicts(tasks.get(i), tasks.get(index));
+            }
+            if (free)
+            {
+                colours[index] = c;
+                if (colourable(tasks, colours, index + 1, k))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static List<Integer> ids(List<RoutingAlgorithm.CombatAchievement> tasks)
+    {
+        List<Integer> ids = new ArrayList<>();
+        for (RoutingAlgorithm.CombatAchievement task : tasks)
+        {
+            ids.add(task.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,267 @@
+package com.CAHelper;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the wiki requests against a local stand-in for the wiki API.
+ */
+public class WikiDataLoaderTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Gson gson = new Gson();
+    private MockWebServer server;
+    private WikiDataLoader loader;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        server = new MockWebServer();
+        server.start();
+
+        HttpUrl apiUrl = server.url("/api.php");
+        loader = new WikiDataLoader(gson, new OkHttpClient(), apiUrl, folder.newFolder("http"));
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        loader.shutDown();
+        server.shutdown();
+    }
+
+    @Test
+    public void bossPagesRespectTheRequestLimit() throws Exception
+    {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        server.setDispatcher(new Dispatcher()
+        {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException
+            {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try
+                {
+                    Thread.sleep(100);
+                    return bossPage(request.getRequestUrl().queryParameter("page"), "", Collections.emptyList());
+                }
+                finally
+                {
+                    active.decrementAndGet();
+                }
+            }
+        });
+
+        List<String> bosses = new ArrayList<>();
+        for (int i = 0; i < 12; i++)
+        {
+            bosses.add("Boss " + i);
+        }
+
+        Map<String, BossMetadata> fetched = loader.fetchBossMetadata(bosses).get(10, TimeUnit.SECONDS);
+
+        assertEquals(12, fetched.size());
+        assertEquals(12, server.getRequestCount());
+        assertTrue("max concurrent requests was " + maxActive.get(), maxActive.get() <= WikiDataLoader.MAX_CONCURRENT_REQUESTS);
+        assertTrue("requests never overlapped", maxActive.get() > 1);
+    }
+
+    @Test
+    public void bossPagesAreServedFromTheDiskCache() throws Exception
+    {
+        server.setDispatcher(new Dispatcher()
+        {
+            @Override
+            public MockResponse dispatch(RecordedRequest request)
+            {
+                return bossPage(request.getRequestUrl().queryParameter("page"), "", Collections.emptyList())
+                        .setHeader("Cache-Control", "public, max-age=3600");
+            }
+        });
+
+        List<String> bosses = Arrays.asList("Zulrah", "Vorkath");
+        assertEquals(2, loader.fetchBossMetadata(bosses).get(10, TimeUnit.SECONDS).size());
+        assertEquals(2, server.getRequestCount());
+
+        Map<String, BossMetadata> cached = loader.fetchBossMetadata(bosses).get(10, TimeUnit.SECONDS);
+        assertEquals(2, cached.size());
+        assertEquals("second fetch should not reach the server", 2, server.getRequestCount());
+
+        // A restart builds a new client over the same cache directory
+        loader.shutDown();
+        assertEquals(2, loader.fetchBossMetadata(bosses).get(10, TimeUnit.SECONDS).size());
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void bossPagesAreClassifiedFromInfoboxAndCategories() throws Exception
+    {
+        server.setDispatcher(new Dispatcher()
+        {
+            @Override
+            public MockResponse dispatch(RecordedRequest request)
+            {
+                String page = request.getRequestUrl().queryParameter("page");
+                switch (page)
+                {
+                    case "Callisto":
+                        return bossPage(page, infobox("Callisto's Den, Wilderness", "6503, 6609"),
+                                Collections.singletonList("Bosses"));
+                    case "Nex":
+                        return bossPage(page, infobox("Ancient Prison", "11278,11279,11280"),
+                                Arrays.asList("Group_bosses", "God_Wars_Dungeon"));
+                    case "Scorpia":
+                        return bossPage(page, infobox("Scorpion Pit", "6615"),
+                                Collections.singletonList("Wilderness_bosses"));
+                    case "Zulrah":
+                        return bossPage(page, infobox("Zul-Andra", "2042, 2043, 2044, 2042"),
+                                Collections.singletonList("Bosses"));
+                    default:
+                        return new MockResponse().setBody("{\"error\":{\"code\":\"missingtitle\"}}");
+                }
+            }
+        });
+
+        Map<String, BossMetadata> fetched = loader.fetchBossMetadata(
+                Arrays.asList("Callisto", "Nex", "Scorpia", "Zulrah", "Not a boss")).get(10, TimeUnit.SECONDS);
+
+        assertEquals(4, fetched.size());
+        assertNull(fetched.get("Not a boss"));
+
+        BossMetadata callisto = fetched.get("Callisto");
+        assertEquals("Callisto's Den, Wilderness", callisto.getLocation());
+        assertTrue(callisto.isWilderness());
+        assertFalse(callisto.isGroupOnly());
+        assertEquals(Arrays.asList(6503, 6609), callisto.getNpcIds());
+
+        BossMetadata nex = fetched.get("Nex");
+        assertFalse(nex.isWilderness());
+        assertTrue(nex.isGroupOnly());
+        assertEquals(Arrays.asList(11278, 11279, 11280), nex.getNpcIds());
+
+        // Wilderness from the category alone
+        assertTrue(fetched.get("Scorpia").isWilderness());
+
+        BossMetadata zulrah = fetched.get("Zulrah");
+        assertFalse(zulrah.isWilderness());
+        assertFalse(zulrah.isGroupOnly());
+        assertEquals(Arrays.asList(2042, 2043, 2044), zulrah.getNpcIds());
+    }
+
+    @Test
+    public void taskRowsComeFromTheStructuredQuery() throws Exception
+    {
+        server.enqueue(new MockResponse().setBody("{\"bucket\":["
+                + "{\"id\":\"17\",\"monster\":\"Zulrah\",\"name\":\"Snake Rebound\",\"task\":\"Kill Zulrah 75 times.\","
+                + "\"type\":\"Kill Count\",\"tier\":\"Elite\",\"completion\":12.5},"
+                + "{\"id\":[\"18\"],\"monster\":\"Vorkath\",\"name\":\"Dodging the Dragon\",\"task\":\"Kill Vorkath without being hit.\","
+                + "\"type\":[\"Perfection\"],\"tier\":\"Master (5 pts)\",\"completion\":null},"
+                + "{\"monster\":\"No ID\",\"name\":\"Skipped\",\"tier\":\"Easy\"}]}"));
+
+        List<RoutingAlgorithm.CombatAchievement> rows = loader.loadAllAchievements();
+
+        assertEquals(2, rows.size());
+        RoutingAlgorithm.CombatAchievement snake = rows.get(0);
+        assertEquals(17, snake.getId());
+        assertEquals("Zulrah", snake.getMonster());
+        assertEquals(RoutingAlgorithm.Difficulty.ELITE, snake.getDifficulty());
+        assertEquals(12.5, snake.getCompletionRate(), 1e-9);
+
+        RoutingAlgorithm.CombatAchievement dodging = rows.get(1);
+        assertEquals(18, dodging.getId());
+        assertEquals(RoutingAlgorithm.Difficulty.MASTER, dodging.getDifficulty());
+        assertEquals(0.0, dodging.getCompletionRate(), 1e-9);
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("/api.php", request.getRequestUrl().encodedPath());
+        assertEquals("bucket", request.getRequestUrl().queryParameter("action"));
+    }
+
+    @Test
+    public void taskRowsFallBackToTheRenderedTable() throws Exception
+    {
+        String table = "<table class=\"wikitable ca-tasks\"><tbody>"
+                + "<tr><th>Monster</th><th>Name</th><th>Description</th><th>Type</th><th>Tier</th><th>Comp%</th></tr>"
+                + "<tr data-ca-task-id=\"3\"><td>Obor</td><td>Obor Champion</td><td>Kill Obor 5 times.</td>"
+                + "<td>Kill Count</td><td>Easy (1 pt)</td><td>61.2%</td></tr>"
+                + "<tr data-ca-task-id=\"4\"><td>Bryophyta</td><td>Preparation Is Key</td><td>Kill Bryophyta without suffering poison.</td>"
+                + "<td>Perfection</td><td>Easy (1 pt)</td><td>40%</td></tr>"
+                + "<tr data-ca-task-id=\"5\"><td>Short row</td></tr>"
+                + "</tbody></table>";
+        JsonObject parse = new JsonObject();
+        parse.addProperty("text", table);
+        JsonObject root = new JsonObject();
+        root.add("parse", parse);
+
+        server.enqueue(new MockResponse().setBody("{\"error\":{\"code\":\"unknown_action\"}}"));
+        server.enqueue(new MockResponse().setBody(gson.toJson(root)));
+
+        List<RoutingAlgorithm.CombatAchievement> rows = loader.loadAllAchievements();
+
+        assertEquals(2, rows.size());
+        assertEquals(3, rows.get(0).getId());
+        assertEquals("Obor Champion", rows.get(0).getName());
+        assertEquals(61.2, rows.get(0).getCompletionRate(), 1e-9);
+        assertEquals(4, rows.get(1).getId());
+        assertEquals(RoutingAlgorithm.TaskType.PERFECTION, rows.get(1).getType());
+        assertEquals("bucket", server.takeRequest().getRequestUrl().queryParameter("action"));
+        assertEquals("parse", server.takeRequest().getRequestUrl().queryParameter("action"));
+    }
+
+    private MockResponse bossPage(String title, String html, List<String> categories)
+    {
+        JsonArray categoryArray = new JsonArray();
+        for (String category : categories)
+        {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("category", category);
+            categoryArray.add(entry);
+        }
+
+        JsonObject parse = new JsonObject();
+        parse.addProperty("title", title);
+        parse.addProperty("text", html);
+        parse.add("categories", categoryArray);
+
+        JsonObject root = new JsonObject();
+        root.add("parse", parse);
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(gson.toJson(root));
+    }
+
+    private static String infobox(String location, String npcIds)
+    {
+        return "<table class=\"infobox\"><tbody>"
+                + "<tr><th>Released</th><td>1 January 2020</td></tr>"
+                + "<tr><th>Location</th><td>" + location + "</td></tr>"
+                + "<tr><th>NPC ID</th><td>" + npcIds + "</td></tr>"
+                + "</tbody></table>";
+    }
+}
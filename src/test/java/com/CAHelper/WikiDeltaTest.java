@@ -0,0 +1,142 @@
+package com.CAHelper;
+
+import com.google.gson.Gson;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WikiDeltaTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private WikiDeltaJournal journal;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        journal = new WikiDeltaJournal(new Gson(), new File(folder.getRoot(), "journal.jsonl"));
+    }
+
+    @Test
+    public void diffFindsChangedAddedAndRemovedRows()
+    {
+        List<RoutingAlgorithm.CombatAchievement> previous = Arrays.asList(
+                row(1, "Noxious Foe", 12.5), row(2, "Fragment of Seren Speedrun", 3.0), row(3, "Perfect Zulrah", 1.0));
+        List<RoutingAlgorithm.CombatAchievement> next = Arrays.asList(
+                row(1, "Noxious Foe", 12.5), row(2, "Fragment of Seren Speedrun", 3.5), row(4, "Demonic Rebound", 20.0));
+
+        WikiDelta delta = WikiDelta.diff(previous, next);
+
+        assertEquals(Arrays.asList(row(2, "Fragment of Seren Speedrun", 3.5), row(4, "Demonic Rebound", 20.0)), delta.getChanged());
+        assertArrayEquals(new int[]{3}, delta.getRemoved());
+        assertEquals(3, delta.size());
+        assertEquals(sorted(next), sorted(delta.applyTo(previous)));
+    }
+
+    @Test
+    public void diffOfIdenticalRowsIsEmpty()
+    {
+        List<RoutingAlgorithm.CombatAchievement> rows = Arrays.asList(row(1, "Noxious Foe", 12.5), row(2, "Into the Den of Giants", 40.0));
+
+        assertTrue(WikiDelta.diff(rows, new ArrayList<>(rows)).isEmpty());
+    }
+
+    @Test
+    public void diffKeepsFirstRowForDuplicateIds()
+    {
+        List<RoutingAlgorithm.CombatAchievement> previous = Collections.singletonList(row(1, "Noxious Foe", 12.5));
+        List<RoutingAlgorithm.CombatAchievement> next = Arrays.asList(row(1, "Noxious Foe", 12.5), row(1, "Duplicate", 0.0));
+
+        assertTrue(WikiDelta.diff(previous, next).isEmpty());
+    }
+
+    @Test
+    public void journalReplayRebuildsTheLatestRows()
+    {
+        List<RoutingAlgorithm.CombatAchievement> base = Arrays.asList(row(1, "A", 1.0), row(2, "B", 2.0), row(3, "C", 3.0));
+        List<RoutingAlgorithm.CombatAchievement> second = Arrays.asList(row(1, "A", 1.5), row(3, "C", 3.0), row(4, "D", 4.0));
+        List<RoutingAlgorithm.CombatAchievement> third = Arrays.asList(row(1, "A", 1.5), row(2, "B again", 2.0), row(4, "D", 4.5));
+
+        assertFalse(journal.append(WikiDelta.diff(base, second)));
+        assertFalse(journal.append(WikiDelta.diff(second, third)));
+
+        assertEquals(sorted(third), sorted(journal.replay(base)));
+    }
+
+    @Test
+    public void replayWithoutJournalReturnsBase()
+    {
+        List<RoutingAlgorithm.CombatAchievement> base = Arrays.asList(row(1, "A", 1.0), row(2, "B", 2.0));
+
+        journal.append(WikiDelta.diff(base, Collections.singletonList(row(1, "A", 1.0))));
+        journal.clear();
+
+        assertEquals(base, journal.replay(base));
+    }
+
+    @Test
+    public void replaySkipsATornFinalLine() throws Exception
+    {
+        File file = new File(folder.getRoot(), "journal.jsonl");
+        List<RoutingAlgorithm.CombatAchievement> base = Collections.singletonList(row(1, "A", 1.0));
+        List<RoutingAlgorithm.CombatAchievement> next = Arrays.asList(row(1, "A", 2.0), row(2, "B", 2.0));
+
+        journal.append(WikiDelta.diff(base, next));
+        try (FileWriter writer = new FileWriter(file, true))
+        {
+            writer.write("{\"row\":{\"id\":3,\"na");
+        }
+
+        assertEquals(sorted(next), sorted(journal.replay(base)));
+    }
+
+    @Test
+    public void appendAsksForCompactionAtThreshold()
+    {
+        List<RoutingAlgorithm.CombatAchievement> base = new ArrayList<>();
+        List<RoutingAlgorithm.CombatAchievement> almost = new ArrayList<>();
+        for (int id = 0; id < WikiDeltaJournal.COMPACT_THRESHOLD; id++)
+        {
+            base.add(row(id, "Task " + id, 1.0));
+            almost.add(row(id, "Task " + id, id < WikiDeltaJournal.COMPACT_THRESHOLD - 1 ? 2.0 : 1.0));
+        }
+
+        assertFalse(journal.append(WikiDelta.diff(base, almost)));
+        assertTrue(journal.append(WikiDelta.of(Collections.singletonList(row(0, "Task 0", 3.0)), new int[0])));
+
+        // Compaction: the caller rewrites the cache file from the replayed rows, then clears the journal
+        List<RoutingAlgorithm.CombatAchievement> compacted = journal.replay(base);
+        journal.clear();
+        assertEquals(sorted(compacted), sorted(journal.replay(compacted)));
+        assertFalse(journal.append(WikiDelta.of(Collections.singletonList(row(1, "Task 1", 4.0)), new int[0])));
+    }
+
+    private static RoutingAlgorithm.CombatAchievement row(int id, String name, double completionRate)
+    {
+        return new RoutingAlgorithm.CombatAchievement(id, name, "Monster " + id, -1,
+                RoutingAlgorithm.Difficulty.EASY, RoutingAlgorithm.TaskType.KILLCOUNT, completionRate, false,
+                "Description " + id, Collections.emptyList());
+    }
+
+    private static List<RoutingAlgorithm.CombatAchievement> sorted(List<RoutingAlgorithm.CombatAchievement> rows)
+    {
+        List<RoutingAlgorithm.CombatAchievement> copy = new ArrayList<>(rows);
+        copy.sort(Comparator.comparingInt(RoutingAlgorithm.CombatAchievement::getId));
+        return copy;
+    }
+}